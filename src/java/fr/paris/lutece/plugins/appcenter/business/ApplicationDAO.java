@@ -39,10 +39,13 @@ import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
 
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class provides Data Access methods for Application objects
@@ -50,60 +53,42 @@ import java.util.Map;
 public final class ApplicationDAO implements IApplicationDAO
 {
 	// Constants
-	private static final String SQL_QUERY_NEW_PK = "SELECT max( id_application ) FROM appcenter_application";
 	private static final String SQL_QUERY_SELECT = "SELECT appcenter_application.id_application, name, description, id_organization_manager, application_data, logo_path, front_url, back_url, code, environment_code FROM appcenter_application LEFT JOIN appcenter_application_environment ON appcenter_application.id_application = appcenter_application_environment.id_application WHERE appcenter_application.id_application = ? ";
 	private static final String SQL_QUERY_SELECT_BY_CODE = "SELECT appcenter_application.id_application, name, description, id_organization_manager, application_data,code, environment_code, logo_path, front_url, back_url FROM appcenter_application LEFT JOIN appcenter_application_environment ON appcenter_application.id_application = appcenter_application_environment.id_application WHERE appcenter_application.code = ? ";
-	private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_application ( id_application, name, description, id_organization_manager, application_data,code, logo_path, front_url, back_url ) VALUES ( ?, ?, ?, ?, ?, ?, ?, ?, ? ) ";
+	private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_application ( name, description, id_organization_manager, application_data,code, logo_path, front_url, back_url ) VALUES ( ?, ?, ?, ?, ?, ?, ?, ? ) ";
 	private static final String SQL_QUERY_DELETE = "DELETE FROM appcenter_application WHERE id_application = ? ";
 	private static final String SQL_QUERY_UPDATE = "UPDATE appcenter_application SET name = ?, description = ? , id_organization_manager = ?, code = ?, logo_path = ?, front_url = ?, back_url = ?  WHERE id_application = ?";
 	private static final String SQL_QUERY_UPDATE_DATA = "UPDATE appcenter_application SET application_data = ? WHERE id_application = ?";
-	private static final String SQL_QUERY_SELECTALL = "SELECT id_application, name, description, id_organization_manager, application_data, code, logo_path, front_url, back_url FROM appcenter_application";
+	private static final String SQL_QUERY_SELECT_LOGO = "SELECT logo_path FROM appcenter_application WHERE id_application = ? ";
+	private static final String SQL_QUERY_SELECTALL = "SELECT id_application, name, description, id_organization_manager, application_data, code, front_url, back_url FROM appcenter_application";
+	private static final String SQL_QUERY_SELECT_USER_FIRST_ROLE = " SELECT MIN( uar.id_role ) FROM appcenter_user_application_role uar INNER JOIN appcenter_role r ON uar.id_role = r.id_role WHERE uar.id_user = ? AND uar.id_application = ";
+	private static final String SQL_QUERY_SELECTALL_BY_USER_PERMISSION = "SELECT a.id_application, a.name, a.description, a.id_organization_manager, a.code, a.front_url, a.back_url FROM appcenter_application a"
+			+ " WHERE EXISTS ( SELECT pr.id_role FROM appcenter_permission_role pr WHERE pr.code_permission = ? AND pr.id_role = COALESCE("
+			+ " (" + SQL_QUERY_SELECT_USER_FIRST_ROLE + RoleHome.GLOBAL_PERMISSION_WILDCARD_ID + " ),"
+			+ " (" + SQL_QUERY_SELECT_USER_FIRST_ROLE + "a.id_application ) ) )"
+			+ " ORDER BY a.id_application";
 	private static final String SQL_QUERY_DELETE_AUTHORIZED = "DELETE FROM appcenter_user_application_role WHERE id_application = ? ";
 	private static final String SQL_QUERY_SELECT_USER_ROLE = "SELECT id_role FROM appcenter_user_application_role WHERE id_application = ? AND id_user = ? ";
 	private static final String SQL_QUERY_INSERT_ENVIRONMENT = " INSERT INTO appcenter_application_environment ( id_application, environment_code ) VALUES ( ? , ? ) ";
 	private static final String SQL_QUERY_DELETE_ENVIRONMENT = " DELETE FROM appcenter_application_environment WHERE id_application = ? ";
+	private static final String SQL_QUERY_DELETE_ENVIRONMENT_BY_CODE = " DELETE FROM appcenter_application_environment WHERE id_application = ? AND environment_code = ? ";
+	private static final String SQL_QUERY_SELECT_ENVIRONMENT_CODES = " SELECT environment_code FROM appcenter_application_environment WHERE id_application = ? ";
 
 	// Constants
 	private static final String CONSTANT_WHERE = " WHERE ";
 	private static final String CONSTANT_WHERE_SEARCH = " ( code LIKE ? OR name LIKE ? ) ";
 	private static final String SQL_LIKE_WILDCARD = "%";
 
-	/**
-	 * Generates a new primary key
-	 * 
-	 * @param plugin
-	 *            The Plugin
-	 * @return The new primary key
-	 */
-	public int newPrimaryKey( Plugin plugin )
-	{
-		int nKey = 1;
-		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_NEW_PK, plugin ) )
-		{
-			daoUtil.executeQuery( );
-
-			if ( daoUtil.next( ) )
-			{
-				nKey = daoUtil.getInt( 1 ) + 1;
-			}
-
-			daoUtil.free( );
-		}
-		return nKey;
-	}
-
 	/**
 	 * {@inheritDoc }
 	 */
 	@Override
 	public void insert( Application application, Plugin plugin )
 	{
-		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
 		{
-			application.setId( newPrimaryKey( plugin ) );
 			int nIndex = 1;
 
-			daoUtil.setInt( nIndex++, application.getId( ) );
 			daoUtil.setString( nIndex++, application.getName( ) );
 			daoUtil.setString( nIndex++, application.getDescription( ) );
 			if( application.getOrganizationManager( )!=null)
@@ -122,22 +107,14 @@ public final class ApplicationDAO implements IApplicationDAO
 			daoUtil.setString( nIndex++, application.getBackURL( ) );
 
 			daoUtil.executeUpdate( );
-			daoUtil.free( );
-		}
-
-		for ( Environment envi : application.getListEnvironment( ) )
-		{
-			try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT_ENVIRONMENT, plugin ) )
+			if ( daoUtil.nextGeneratedKey( ) )
 			{
-				int nIndex = 1;
-
-				daoUtil.setInt( nIndex++, application.getId( ) );
-				daoUtil.setString( nIndex++, envi.getPrefix( ) );
-
-				daoUtil.executeUpdate( );
-				daoUtil.free( );
+				application.setId( daoUtil.getGeneratedKeyInt( 1 ) );
 			}
+			daoUtil.free( );
 		}
+
+		insertEnvironments( application.getId( ), getEnvironmentCodes( application ), plugin );
 	}
 
 	/**
@@ -265,29 +242,129 @@ public final class ApplicationDAO implements IApplicationDAO
 			daoUtil.free( );
 		}
 
-		// Delete the environments for the application
-		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_ENVIRONMENT, plugin ) )
+		// Only write the environments which changed
+		Set<String> setStoredEnvironmentCodes = selectEnvironmentCodes( application.getId( ), plugin );
+		Set<String> setEnvironmentCodes = getEnvironmentCodes( application );
+
+		Set<String> setRemovedEnvironmentCodes = new LinkedHashSet<>( setStoredEnvironmentCodes );
+		setRemovedEnvironmentCodes.removeAll( setEnvironmentCodes );
+		deleteEnvironments( application.getId( ), setRemovedEnvironmentCodes, plugin );
+
+		Set<String> setAddedEnvironmentCodes = new LinkedHashSet<>( setEnvironmentCodes );
+		setAddedEnvironmentCodes.removeAll( setStoredEnvironmentCodes );
+		insertEnvironments( application.getId( ), setAddedEnvironmentCodes, plugin );
+	}
+
+	/**
+	 * Get the codes of the environments of an application
+	 * 
+	 * @param application
+	 *            The application
+	 * @return The set of the environment codes
+	 */
+	private static Set<String> getEnvironmentCodes( Application application )
+	{
+		Set<String> setEnvironmentCodes = new LinkedHashSet<>( );
+		if ( application.getListEnvironment( ) != null )
 		{
-			daoUtil.setInt( 1, application.getId( ) );
-			daoUtil.executeUpdate( );
+			for ( Environment envi : application.getListEnvironment( ) )
+			{
+				setEnvironmentCodes.add( envi.getPrefix( ) );
+			}
+		}
+		return setEnvironmentCodes;
+	}
+
+	/**
+	 * Load the codes of the environments stored for an application
+	 * 
+	 * @param nIdApplication
+	 *            The id of the application
+	 * @param plugin
+	 *            The Plugin
+	 * @return The set of the environment codes
+	 */
+	private static Set<String> selectEnvironmentCodes( int nIdApplication, Plugin plugin )
+	{
+		Set<String> setEnvironmentCodes = new LinkedHashSet<>( );
+		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_ENVIRONMENT_CODES, plugin ) )
+		{
+			daoUtil.setInt( 1, nIdApplication );
+			daoUtil.executeQuery( );
+
+			while ( daoUtil.next( ) )
+			{
+				setEnvironmentCodes.add( daoUtil.getString( 1 ) );
+			}
+
 			daoUtil.free( );
 		}
+		return setEnvironmentCodes;
+	}
 
-		// Add the environments modified
-		for ( Environment envi : application.getListEnvironment( ) )
+	/**
+	 * Insert environments of an application with a single batch
+	 * 
+	 * @param nIdApplication
+	 *            The id of the application
+	 * @param setEnvironmentCodes
+	 *            The codes of the environments to insert
+	 * @param plugin
+	 *            The Plugin
+	 */
+	private static void insertEnvironments( int nIdApplication, Set<String> setEnvironmentCodes, Plugin plugin )
+	{
+		executeEnvironmentsBatch( SQL_QUERY_INSERT_ENVIRONMENT, nIdApplication, setEnvironmentCodes, plugin );
+	}
+
+	/**
+	 * Delete environments of an application with a single batch
+	 * 
+	 * @param nIdApplication
+	 *            The id of the application
+	 * @param setEnvironmentCodes
+	 *            The codes of the environments to delete
+	 * @param plugin
+	 *            The Plugin
+	 */
+	private static void deleteEnvironments( int nIdApplication, Set<String> setEnvironmentCodes, Plugin plugin )
+	{
+		executeEnvironmentsBatch( SQL_QUERY_DELETE_ENVIRONMENT_BY_CODE, nIdApplication, setEnvironmentCodes, plugin );
+	}
+
+	/**
+	 * Execute a statement taking an application id and an environment code for each environment code, with a single batch
+	 * 
+	 * @param strSql
+	 *            The statement
+	 * @param nIdApplication
+	 *            The id of the application
+	 * @param setEnvironmentCodes
+	 *            The environment codes
+	 * @param plugin
+	 *            The Plugin
+	 */
+	private static void executeEnvironmentsBatch( String strSql, int nIdApplication, Set<String> setEnvironmentCodes, Plugin plugin )
+	{
+		if ( setEnvironmentCodes.isEmpty( ) )
+		{
+			return;
+		}
+
+		try( DAOUtil daoUtil = new DAOUtil( strSql, plugin ) )
 		{
-			try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT_ENVIRONMENT, plugin ) )
+			for ( String strEnvironmentCode : setEnvironmentCodes )
 			{
 				int nIndex = 1;
 
-				daoUtil.setInt( nIndex++, application.getId( ) );
-				daoUtil.setString( nIndex++, envi.getPrefix( ) );
-
-				daoUtil.executeUpdate( );
-				daoUtil.free( );
+				daoUtil.setInt( nIndex++, nIdApplication );
+				daoUtil.setString( nIndex++, strEnvironmentCode );
+				daoUtil.addBatch( );
 			}
-		}
 
+			daoUtil.executeBatch( );
+			daoUtil.free( );
+		}
 	}
 
 	/**
@@ -308,13 +385,39 @@ public final class ApplicationDAO implements IApplicationDAO
 		}
 	}
 
+	/**
+	 * {@inheritDoc }
+	 */
+	@Override
+	public PhysicalFile loadLogo( int nKey, Plugin plugin )
+	{
+		PhysicalFile physicalFile = null;
+		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LOGO, plugin ) )
+		{
+			daoUtil.setInt( 1, nKey );
+			daoUtil.executeQuery( );
+
+			if ( daoUtil.next( ) )
+			{
+				byte[] logo = daoUtil.getBytes( 1 );
+				if ( logo != null && logo.length > 0 )
+				{
+					physicalFile = new PhysicalFile( );
+					physicalFile.setValue( logo );
+				}
+			}
+
+			daoUtil.free( );
+		}
+		return physicalFile;
+	}
+
 	/**
 	 * {@inheritDoc }
 	 */
 	@Override
 	public List<Application> selectApplicationsList( Plugin plugin )
 	{
-		PhysicalFile physicalFile = new PhysicalFile( );
 		List<Application> applicationList = new ArrayList<>( );
 		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin ) )
 		{
@@ -333,8 +436,6 @@ public final class ApplicationDAO implements IApplicationDAO
 				application.setOrganizationManager( organizationManager );
 				application.setApplicationData( daoUtil.getString( nIndex++ ) );
 				application.setCode( daoUtil.getString( nIndex++ ) );
-				physicalFile.setValue( daoUtil.getBytes( nIndex++ ) );
-				application.setLogo( physicalFile );
 				application.setFrontURL( daoUtil.getString( nIndex++ ) );
 				application.setBackURL( daoUtil.getString( nIndex++ ) );
 
@@ -394,6 +495,47 @@ public final class ApplicationDAO implements IApplicationDAO
 		return applicationList;
 	}
 
+	/**
+	 * {@inheritDoc }
+	 */
+	@Override
+	public List<Application> selectApplicationsListByUserPermission( String strUserId, String strPermissionCode, Plugin plugin )
+	{
+		List<Application> applicationList = new ArrayList<>( );
+		try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_BY_USER_PERMISSION, plugin ) )
+		{
+			int nIndex = 1;
+			daoUtil.setString( nIndex++, strPermissionCode );
+			// Global role
+			daoUtil.setString( nIndex++, strUserId );
+			// Application role
+			daoUtil.setString( nIndex++, strUserId );
+
+			daoUtil.executeQuery( );
+
+			while ( daoUtil.next( ) )
+			{
+				Application application = new Application( );
+				nIndex = 1;
+
+				application.setId( daoUtil.getInt( nIndex++ ) );
+				application.setName( daoUtil.getString( nIndex++ ) );
+				application.setDescription( daoUtil.getString( nIndex++ ) );
+				OrganizationManager organizationManager = new OrganizationManager( );
+				organizationManager.setIdOrganizationManager( daoUtil.getInt( nIndex++ ) );
+				application.setOrganizationManager( organizationManager );
+				application.setCode( daoUtil.getString( nIndex++ ) );
+				application.setFrontURL( daoUtil.getString( nIndex++ ) );
+				application.setBackURL( daoUtil.getString( nIndex++ ) );
+
+				applicationList.add( application );
+			}
+
+			daoUtil.free( );
+		}
+		return applicationList;
+	}
+
 	/**
 	 * {@inheritDoc }
 	 */
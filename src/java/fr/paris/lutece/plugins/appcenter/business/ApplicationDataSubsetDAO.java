@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class provides Data Access methods for the data subsets of the applications
+ */
+public final class ApplicationDataSubsetDAO implements IApplicationDataSubsetDAO
+{
+    // Constants
+    private static final String SQL_QUERY_SELECT = "SELECT subset_data FROM appcenter_application_data_subset WHERE id_application = ? AND subset_name = ?";
+    private static final String SQL_QUERY_SELECT_FOR_UPDATE = SQL_QUERY_SELECT + " FOR UPDATE";
+    private static final String SQL_QUERY_SELECT_BY_ID_APPLICATION = "SELECT subset_name, subset_data FROM appcenter_application_data_subset WHERE id_application = ? ORDER BY subset_name";
+    private static final String SQL_QUERY_SELECT_LEGACY = "SELECT a.id_application, a.application_data FROM appcenter_application a WHERE a.application_data IS NOT NULL "
+            + " AND NOT EXISTS ( SELECT s.id_application FROM appcenter_application_data_subset s WHERE s.id_application = a.id_application ) ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_application_data_subset ( id_application, subset_name, subset_data ) VALUES ( ?, ?, ? ) ";
+    private static final String SQL_QUERY_UPDATE = "UPDATE appcenter_application_data_subset SET subset_data = ? WHERE id_application = ? AND subset_name = ?";
+    private static final String SQL_QUERY_DELETE_BY_ID_APPLICATION = "DELETE FROM appcenter_application_data_subset WHERE id_application = ?";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void store( int nIdApplication, String strSubsetName, String strSubsetData, Plugin plugin )
+    {
+        // The row is updated in place, so that a reader never misses the subset
+        int nUpdated;
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, strSubsetData );
+            daoUtil.setInt( nIndex++, nIdApplication );
+            daoUtil.setString( nIndex++, strSubsetName );
+
+            nUpdated = daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+
+        if ( nUpdated > 0 )
+        {
+            return;
+        }
+
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, nIdApplication );
+            daoUtil.setString( nIndex++, strSubsetName );
+            daoUtil.setString( nIndex++, strSubsetData );
+
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByIdApplication( int nIdApplication, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_ID_APPLICATION, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String load( int nIdApplication, String strSubsetName, Plugin plugin )
+    {
+        return load( SQL_QUERY_SELECT, nIdApplication, strSubsetName, plugin );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String loadForUpdate( int nIdApplication, String strSubsetName, Plugin plugin )
+    {
+        return load( SQL_QUERY_SELECT_FOR_UPDATE, nIdApplication, strSubsetName, plugin );
+    }
+
+    /**
+     * Load the JSON of a data subset of an application with the given query
+     * 
+     * @param strQuery
+     *            The select query
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @param plugin
+     *            the Plugin
+     * @return The JSON of the subset or null if the application has no such subset
+     */
+    private String load( String strQuery, int nIdApplication, String strSubsetName, Plugin plugin )
+    {
+        String strSubsetData = null;
+        try( DAOUtil daoUtil = new DAOUtil( strQuery, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+            daoUtil.setString( 2, strSubsetName );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                strSubsetData = daoUtil.getString( 1 );
+            }
+
+            daoUtil.free( );
+        }
+        return strSubsetData;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<String, String> selectByIdApplication( int nIdApplication, Plugin plugin )
+    {
+        Map<String, String> mapSubsets = new LinkedHashMap<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_ID_APPLICATION, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapSubsets.put( daoUtil.getString( 1 ), daoUtil.getString( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return mapSubsets;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, String> selectLegacyApplicationData( Plugin plugin )
+    {
+        Map<Integer, String> mapLegacyData = new LinkedHashMap<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_LEGACY, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapLegacyData.put( daoUtil.getInt( 1 ), daoUtil.getString( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return mapLegacyData;
+    }
+}
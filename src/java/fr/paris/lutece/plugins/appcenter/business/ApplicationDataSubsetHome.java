@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.util.sql.TransactionManager;
+import java.util.Map;
+
+/**
+ * This class provides instances management methods for the data subsets of the applications
+ */
+public final class ApplicationDataSubsetHome
+{
+    // Static variable pointed at the DAO instance
+    private static IApplicationDataSubsetDAO _dao = SpringContextService.getBean( "appcenter.applicationDataSubsetDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "appcenter" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private ApplicationDataSubsetHome( )
+    {
+    }
+
+    /**
+     * Insert or replace the JSON of a data subset of an application. The other subsets are left untouched
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @param strSubsetData
+     *            The JSON of the subset
+     */
+    public static void store( int nIdApplication, String strSubsetName, String strSubsetData )
+    {
+        // The row of the subset is updated, or inserted if it does not exist yet, in the same transaction
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            _dao.store( nIdApplication, strSubsetName, strSubsetData, _plugin );
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw new AppException( "Unable to store the data subset " + strSubsetName + " of the application " + nIdApplication, e );
+        }
+    }
+
+    /**
+     * Remove all the data subsets of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     */
+    public static void removeByIdApplication( int nIdApplication )
+    {
+        _dao.deleteByIdApplication( nIdApplication, _plugin );
+    }
+
+    /**
+     * Returns the JSON of a data subset of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @return The JSON of the subset or null if the application has no such subset
+     */
+    public static String findByPrimaryKey( int nIdApplication, String strSubsetName )
+    {
+        return _dao.load( nIdApplication, strSubsetName, _plugin );
+    }
+
+    /**
+     * Returns the JSON of a data subset of an application and locks its row until the end of the current transaction. This method must be called
+     * within a transaction.
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @return The JSON of the subset or null if the application has no such subset
+     */
+    public static String findByPrimaryKeyForUpdate( int nIdApplication, String strSubsetName )
+    {
+        return _dao.loadForUpdate( nIdApplication, strSubsetName, _plugin );
+    }
+
+    /**
+     * Returns the JSON of all the data subsets of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @return The map of the JSON of the subsets, by subset name
+     */
+    public static Map<String, String> findByIdApplication( int nIdApplication )
+    {
+        return _dao.selectByIdApplication( nIdApplication, _plugin );
+    }
+
+    /**
+     * Returns the legacy application_data column of the applications which have no data subset row yet
+     * 
+     * @return The map of the legacy JSON documents, by application id
+     */
+    public static Map<Integer, String> findLegacyApplicationData( )
+    {
+        return _dao.selectLegacyApplicationData( _plugin );
+    }
+}
@@ -35,21 +35,29 @@ package fr.paris.lutece.plugins.appcenter.business;
 
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManager;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManagerHome;
-import fr.paris.lutece.plugins.appcenter.service.AuthorizationService;
+import fr.paris.lutece.plugins.appcenter.service.ApplicationDataCacheService;
+import fr.paris.lutece.plugins.appcenter.service.ApplicationLogoCacheService;
+import fr.paris.lutece.plugins.appcenter.service.AuthorizationCacheService;
+import fr.paris.lutece.portal.business.physicalfile.PhysicalFile;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
-import java.util.ArrayList;
+import fr.paris.lutece.util.sql.TransactionManager;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class provides instances management methods (create, find, ...) for Application objects
  */
 public final class ApplicationHome
 {
+    private static final String PERMISSION_VIEW_APPLICATION = "PERMISSION_VIEW_APPLICATION";
+
     // Static variable pointed at the DAO instance
     private static IApplicationDAO _dao = SpringContextService.getBean( "appcenter.applicationDAO" );
     private static Plugin _plugin = PluginService.getPlugin( "appcenter" );
@@ -70,7 +78,17 @@ public final class ApplicationHome
      */
     public static Application create( Application application )
     {
-        _dao.insert( application, _plugin );
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            _dao.insert( application, _plugin );
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw new AppException( "Unable to create the application " + application.getName( ), e );
+        }
 
         return application;
     }
@@ -84,7 +102,20 @@ public final class ApplicationHome
      */
     public static Application update( Application application )
     {
-        _dao.store( application, _plugin );
+        // The application and its environments are written in the same transaction
+        TransactionManager.beginTransaction( _plugin );
+        try
+        {
+            _dao.store( application, _plugin );
+            TransactionManager.commitTransaction( _plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( _plugin, e );
+            throw new AppException( "Unable to update the application " + application.getId( ), e );
+        }
+        ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
+        ApplicationLogoCacheService.getInstance( ).invalidate( application.getId( ) );
 
         return application;
     }
@@ -102,7 +133,7 @@ public final class ApplicationHome
     public static void updateData( int nApplicationId, String strData )
     {
         _dao.storeData( nApplicationId, strData, _plugin );
-
+        ApplicationDataCacheService.getInstance( ).invalidate( nApplicationId );
     }
 
     /**
@@ -113,7 +144,21 @@ public final class ApplicationHome
      */
     public static void remove( int nKey )
     {
+        // The roles of the users on the application are deleted with it
+        Set<String> setIdUsers = new HashSet<>( );
+        for ( UserApplicationRole userApplicationRole : UserApplicationRoleHome.getUserApplicationRolesListByIdApplication( nKey ) )
+        {
+            setIdUsers.add( userApplicationRole.getIdUser( ) );
+        }
+
         _dao.delete( nKey, _plugin );
+        ApplicationDataSubsetHome.removeByIdApplication( nKey );
+        ApplicationDataCacheService.getInstance( ).invalidate( nKey );
+        ApplicationLogoCacheService.getInstance( ).invalidate( nKey );
+        for ( String strIdUser : setIdUsers )
+        {
+            AuthorizationCacheService.getInstance( ).invalidateUser( strIdUser );
+        }
     }
 
     /**
@@ -154,6 +199,18 @@ public final class ApplicationHome
         return application;
     }
 
+    /**
+     * Returns the logo of an application
+     * 
+     * @param nKey
+     *            The application primary key
+     * @return the logo or null if the application has no logo
+     */
+    public static PhysicalFile findLogo( int nKey )
+    {
+        return _dao.loadLogo( nKey, _plugin );
+    }
+
     /**
      * Load the data of all the application objects and returns them as a list
      * 
@@ -220,7 +277,7 @@ public final class ApplicationHome
     }
 
     /**
-     * Get authorized app for a given user
+     * Get authorized app for a given user. The data and the logo of the apps are not loaded
      * 
      * @param strUserId
      *            The user ID
@@ -228,15 +285,6 @@ public final class ApplicationHome
      */
     public static List<Application> getApplicationsByUser( String strUserId )
     {
-        List<Application> listApplications = getApplicationsList( );
-        List<Application> listAuthorizedApplications = new ArrayList<>( );
-        for ( Application app : listApplications )
-        {
-            if ( AuthorizationService.isAuthorized( strUserId, app.getId( ), "PERMISSION_VIEW_APPLICATION", null ) )
-            {
-                listAuthorizedApplications.add( app );
-            }
-        }
-        return listAuthorizedApplications;
+        return _dao.selectApplicationsListByUserPermission( strUserId, PERMISSION_VIEW_APPLICATION, _plugin );
     }
 }
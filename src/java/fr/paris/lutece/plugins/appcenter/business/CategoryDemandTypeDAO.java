@@ -48,7 +48,7 @@ public final class CategoryDemandTypeDAO implements ICategoryDemandTypeDAO
 {
     // Constants
     private static final String SQL_QUERY_SELECT = "SELECT id, label, question, is_depending_of_environment, n_order FROM appcenter_category_demand_type WHERE id = ?";
-    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_category_demand_type SELECT MAX(id+1), ?, ? , ?,  COALESCE( MAX(n_order+1) )  FROM appcenter_category_demand_type ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_category_demand_type ( label, question, is_depending_of_environment, n_order ) SELECT ?, ?, ?, COALESCE( MAX( n_order ) + 1, 1 ) FROM appcenter_category_demand_type ";
     private static final String SQL_QUERY_DELETE = "DELETE FROM appcenter_category_demand_type WHERE id = ? ";
     private static final String SQL_QUERY_UPDATE = "UPDATE appcenter_category_demand_type SET id = ?, label = ?, question = ? , is_depending_of_environment = ?, n_order = ? WHERE id = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT id, label, question, is_depending_of_environment, n_order FROM appcenter_category_demand_type ORDER BY n_order";
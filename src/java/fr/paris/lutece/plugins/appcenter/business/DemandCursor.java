@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Keyset cursor on ( creation_date, id_demand ), or on ( sort attribute value, id_demand ) when the list is sorted on another attribute, used to paginate
+ * the demand list
+ */
+public class DemandCursor implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private Timestamp _creationDate;
+    private String _strSortValue;
+    private int _nIdDemand;
+
+    /**
+     * Constructor
+     * 
+     * @param creationDate
+     *            the creation date of the last demand of the previous page
+     * @param nIdDemand
+     *            the id of the last demand of the previous page
+     */
+    public DemandCursor( Timestamp creationDate, int nIdDemand )
+    {
+        _creationDate = creationDate;
+        _nIdDemand = nIdDemand;
+    }
+
+    /**
+     * Constructor for a list sorted on another attribute than the creation date
+     * 
+     * @param strSortValue
+     *            the value of the sort attribute of the last demand of the previous page
+     * @param nIdDemand
+     *            the id of the last demand of the previous page
+     */
+    public DemandCursor( String strSortValue, int nIdDemand )
+    {
+        _strSortValue = strSortValue;
+        _nIdDemand = nIdDemand;
+    }
+
+    /**
+     * Build the cursor pointing after the given demand summary, in a list sorted on the creation date
+     * 
+     * @param demandSummary
+     *            the last demand summary of a page
+     * @return the cursor
+     */
+    public static DemandCursor after( DemandSummary demandSummary )
+    {
+        return new DemandCursor( demandSummary.getCreationDate( ), demandSummary.getId( ) );
+    }
+
+    /**
+     * Get the creation date
+     * 
+     * @return the creation date
+     */
+    public Timestamp getCreationDate( )
+    {
+        return _creationDate;
+    }
+
+    /**
+     * Get the value of the sort attribute
+     * 
+     * @return the value of the sort attribute
+     */
+    public String getSortValue( )
+    {
+        return _strSortValue;
+    }
+
+    /**
+     * Get the id of the demand
+     * 
+     * @return the id of the demand
+     */
+    public int getIdDemand( )
+    {
+        return _nIdDemand;
+    }
+}
@@ -36,11 +36,17 @@ package fr.paris.lutece.plugins.appcenter.business;
 import java.io.IOException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.workflowcore.business.state.State;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.util.AppLogService;
@@ -56,31 +62,73 @@ public final class DemandDAO implements IDemandDAO
     private static final String SQL_QUERY_SELECT = "SELECT id_demand, id_user_front ,status_text, id_demand_type, demand_type, id_application, demand_content,creation_date, is_closed, environment FROM appcenter_demand WHERE id_demand = ?";
     private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_demand ( id_user_front, status_text, id_demand_type,  demand_type, id_application, demand_content,creation_date,is_closed, environment ) VALUES ( ?, ?, ?, ?, ? , ?, ?, ?, ?) ";
     private static final String SQL_QUERY_DELETE = "DELETE FROM appcenter_demand WHERE id_demand = ? ";
+    private static final String SQL_QUERY_DELETE_BY_APPLICATION = "DELETE FROM appcenter_demand WHERE id_application = ? ";
+    private static final String SQL_QUERY_SELECT_ID_DEMAND_TYPES_BY_APPLICATION = "SELECT id_demand, id_demand_type FROM appcenter_demand WHERE id_application = ? ";
 
     private static final String SQL_QUERY_UPDATE = "UPDATE appcenter_demand SET  id_demand = ?, id_user_front = ? ,status_text = ?, id_demand_type = ?, demand_type = ?, id_application = ?, demand_content = ?, creation_date = ?, is_closed = ?, environment = ? WHERE id_demand = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT d.id_demand, d.id_user_front, d.status_text, d.id_demand_type, d.demand_type, d.id_application, d.demand_content, d.creation_date, d.is_closed, d.environment FROM appcenter_demand d";
+    private static final String SQL_QUERY_SELECTALL_SUMMARY = "SELECT d.id_demand, d.id_user_front, d.status_text, d.id_demand_type, d.demand_type, d.id_application, d.creation_date, d.is_closed, d.environment FROM appcenter_demand d";
+    private static final String SQL_QUERY_SELECTALL_REFERENCE = "SELECT id_demand, id_user_front FROM appcenter_demand";
     private static final String SQL_QUERY_SELECTALL_BY_APPLICATION = SQL_QUERY_SELECTALL + " where id_application = ? ";
     private static final String SQL_QUERY_SELECTALL_BY_APPLICATION_AND_TYPE = SQL_QUERY_SELECTALL_BY_APPLICATION + " and id_demand_type = ? ";
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_demand FROM appcenter_demand";
+    private static final String SQL_QUERY_COUNT = "SELECT COUNT( d.id_demand ) FROM appcenter_demand d";
+    private static final String SQL_QUERY_SELECT_CURSOR = "SELECT d.creation_date, d.id_demand FROM appcenter_demand d";
+    private static final String SQL_QUERY_SELECT_STATES = "SELECT rw.id_resource, ws.id_state, ws.name, ws.description, ws.is_initial_state FROM workflow_resource_workflow rw"
+            + " INNER JOIN workflow_state ws ON rw.id_state = ws.id_state WHERE rw.resource_type = ? AND rw.id_workflow = ? AND rw.id_resource IN ( ";
+    private static final String SQL_QUERY_SELECT_WORKFLOWS = "SELECT rw.id_workflow, rw.id_resource FROM workflow_resource_workflow rw WHERE rw.resource_type = ? AND rw.id_resource IN ( ";
 
     // Constants
     private static final String CONSTANT_INNER_JOIN_APPLICATION = " INNER JOIN appcenter_application a ON d.id_application = a.id_application";
+    private static final String CONSTANT_INNER_JOIN_STATE = " INNER JOIN appcenter_demand_type dt ON d.id_demand_type = dt.id_demand_type"
+            + " INNER JOIN workflow_resource_workflow rw ON rw.id_resource = d.id_demand AND rw.id_workflow = dt.id_workflow"
+            + " INNER JOIN workflow_state ws ON rw.id_state = ws.id_state";
+    private static final String CONSTANT_LEFT_JOIN_APPLICATION = " LEFT JOIN appcenter_application a ON d.id_application = a.id_application";
+    private static final String CONSTANT_LEFT_JOIN_DEMAND_TYPE = " LEFT JOIN appcenter_demand_type dt ON d.id_demand_type = dt.id_demand_type";
+    private static final String CONSTANT_LEFT_JOIN_STATE = " LEFT JOIN workflow_resource_workflow rw ON rw.id_resource = d.id_demand AND rw.id_workflow = dt.id_workflow"
+            + " AND rw.resource_type = ? LEFT JOIN workflow_state ws ON rw.id_state = ws.id_state";
 
     private static final String CONSTANT_WHERE = " WHERE ";
     private static final String CONSTANT_AND = " AND ";
     private static final String CONSTANT_ORDER_BY = " ORDER BY";
     private static final String CONSTANT_WILDCARD = "%";
 
-    private static final String CONSTANT_WHERE_ENVIRONMENT = " environment = ? ";
-    private static final String CONSTANT_WHERE_APPLICATION = " ( code LIKE ? OR name LIKE ? )";
-    private static final String CONSTANT_WHERE_ID_DEMAND_TYPE = " id_demand_type = ? ";
-    private static final String CONSTANT_ORDER_BY_CREATION_DATE = " creation_date DESC";
+    private static final String CONSTANT_WHERE_ENVIRONMENT = " d.environment = ? ";
+    private static final String CONSTANT_WHERE_APPLICATION = " ( a.code LIKE ? OR a.name LIKE ? )";
+    private static final String CONSTANT_WHERE_ID_DEMAND_TYPE = " d.id_demand_type = ? ";
+    private static final String CONSTANT_WHERE_STATE = " rw.resource_type = ? AND ws.name = ? ";
+    private static final String CONSTANT_WHERE_AUTHORIZED_ID_DEMAND_TYPE = " d.id_demand_type IN ( ";
+    private static final String CONSTANT_WHERE_NONE = " 1 = 0 ";
+    private static final String CONSTANT_WHERE_CURSOR_DESC = " ( d.creation_date < ? OR ( d.creation_date = ? AND d.id_demand < ? ) ) ";
+    private static final String CONSTANT_WHERE_CURSOR_ASC = " ( d.creation_date > ? OR ( d.creation_date = ? AND d.id_demand > ? ) ) ";
+    private static final String CONSTANT_ORDER_BY_KEYSET_DESC = " d.creation_date DESC, d.id_demand DESC";
+    private static final String CONSTANT_ORDER_BY_KEYSET_ASC = " d.creation_date ASC, d.id_demand ASC";
+    private static final String CONSTANT_SELECT_SORT_CURSOR = "SELECT %s, d.id_demand FROM appcenter_demand d";
+    private static final String CONSTANT_WHERE_SORT_CURSOR_DESC = " ( %1$s < ? OR ( %1$s = ? AND d.id_demand < ? ) ) ";
+    private static final String CONSTANT_WHERE_SORT_CURSOR_ASC = " ( %1$s > ? OR ( %1$s = ? AND d.id_demand > ? ) ) ";
+    private static final String CONSTANT_ORDER_BY_SORT_DESC = " %s DESC, d.id_demand DESC";
+    private static final String CONSTANT_ORDER_BY_SORT_ASC = " %s ASC, d.id_demand ASC";
+    private static final String CONSTANT_LIMIT = " LIMIT ? ";
+    private static final String CONSTANT_LIMIT_ONE_OFFSET = " LIMIT 1 OFFSET ? ";
+    private static final String CONSTANT_PARAMETER = "?";
+    private static final String CONSTANT_COMMA = ", ";
+    private static final String CONSTANT_CLOSE_PARENTHESIS = " ) ";
+
+    private static final Map<String, String> SORT_EXPRESSIONS = new HashMap<>( );
 
     private static ObjectMapper _mapper = new ObjectMapper( );
+    private static Map<Class<?>, ObjectReader> _mapReaders = new ConcurrentHashMap<>( );
 
     static
     {
         _mapper.configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false );
+
+        // The sorted values are never null, so that the keyset comparisons hold
+        SORT_EXPRESSIONS.put( DemandFilter.SORT_CODE_APPLICATION, "COALESCE( a.code, '' )" );
+        SORT_EXPRESSIONS.put( DemandFilter.SORT_NAME_APPLICATION, "COALESCE( a.name, '' )" );
+        SORT_EXPRESSIONS.put( DemandFilter.SORT_LABEL_DEMAND_TYPE, "COALESCE( dt.label, '' )" );
+        SORT_EXPRESSIONS.put( DemandFilter.SORT_WORKFLOW_STATE, "COALESCE( ws.name, '' )" );
+        SORT_EXPRESSIONS.put( DemandFilter.SORT_ID_USER_FRONT, "COALESCE( d.id_user_front, '' )" );
     }
 
     /**
@@ -167,6 +215,30 @@ public final class DemandDAO implements IDemandDAO
         return demand;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Demand loadTyped( int nKey, Plugin plugin )
+    {
+        Demand demand = null;
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT, plugin ) )
+        {
+            daoUtil.setInt( 1, nKey );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                Class<? extends Demand> demandClass = DemandTypeService.getClassByDemandTypeId( daoUtil.getString( 4 ) );
+                demand = getRow( daoUtil, ( demandClass != null ) ? demandClass : Demand.class );
+            }
+
+            daoUtil.free( );
+        }
+
+        return demand;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -181,6 +253,42 @@ public final class DemandDAO implements IDemandDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByApplication( int nIdApplication, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE_BY_APPLICATION, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, String> selectIdDemandTypesByApplication( int nIdApplication, Plugin plugin )
+    {
+        Map<Integer, String> mapIdDemandTypes = new HashMap<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_ID_DEMAND_TYPES_BY_APPLICATION, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapIdDemandTypes.put( daoUtil.getInt( 1 ), daoUtil.getString( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return mapIdDemandTypes;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -322,7 +430,7 @@ public final class DemandDAO implements IDemandDAO
     public ReferenceList selectDemandsReferenceList( Plugin plugin )
     {
         ReferenceList demandList = new ReferenceList( );
-        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin ) )
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_REFERENCE, plugin ) )
         {
 	        daoUtil.executeQuery( );
 	
@@ -345,18 +453,9 @@ public final class DemandDAO implements IDemandDAO
     {
         try
         {
-            T demand = _mapper.readValue( daoUtil.getString( 7 ), demandClass );
-            int nIndex = 1;
-            demand.setId( daoUtil.getInt( nIndex++ ) );
-            demand.setIdUserFront( daoUtil.getString( nIndex++ ) );
-            demand.setStatusText( daoUtil.getString( nIndex++ ) );
-            demand.setIdDemandType( daoUtil.getString( nIndex++ ) );
-            demand.setDemandType( daoUtil.getString( nIndex++ ) );
-            demand.setIdApplication( daoUtil.getInt( nIndex++ ) );
-            demand.setDemandData( daoUtil.getString( nIndex++ ) );
-            demand.setCreationDate( daoUtil.getTimestamp( nIndex++ ) );
-            demand.setIsClosed( daoUtil.getBoolean( nIndex++ ) );
-            demand.setEnvironment( Environment.getEnvironment( daoUtil.getString( nIndex++ ) ) );
+            String strDemandData = daoUtil.getString( 7 );
+            T demand = getReader( demandClass ).readValue( strDemandData );
+            fillRow( daoUtil, demand, strDemandData );
             return demand;
         }
         catch( IOException e )
@@ -366,11 +465,72 @@ public final class DemandDAO implements IDemandDAO
         }
     }
 
+    /**
+     * Get the summary of a demand from a row of the summary query
+     * 
+     * @param daoUtil
+     *            the daoUtil
+     * @return the summary of the demand
+     */
+    private DemandSummary getSummaryRow( DAOUtil daoUtil )
+    {
+        DemandSummary demandSummary = new DemandSummary( );
+        int nIndex = 1;
+        demandSummary.setId( daoUtil.getInt( nIndex++ ) );
+        demandSummary.setIdUserFront( daoUtil.getString( nIndex++ ) );
+        demandSummary.setStatusText( daoUtil.getString( nIndex++ ) );
+        demandSummary.setIdDemandType( daoUtil.getString( nIndex++ ) );
+        demandSummary.setDemandType( daoUtil.getString( nIndex++ ) );
+        demandSummary.setIdApplication( daoUtil.getInt( nIndex++ ) );
+        demandSummary.setCreationDate( daoUtil.getTimestamp( nIndex++ ) );
+        demandSummary.setIsClosed( daoUtil.getBoolean( nIndex++ ) );
+        demandSummary.setEnvironment( Environment.getEnvironment( daoUtil.getString( nIndex++ ) ) );
+        return demandSummary;
+    }
+
+    /**
+     * Fill a demand with the columns of the current row
+     * 
+     * @param daoUtil
+     *            the daoUtil
+     * @param demand
+     *            the demand
+     * @param strDemandData
+     *            the demand_content column, already read
+     */
+    private void fillRow( DAOUtil daoUtil, Demand demand, String strDemandData )
+    {
+        int nIndex = 1;
+        demand.setId( daoUtil.getInt( nIndex++ ) );
+        demand.setIdUserFront( daoUtil.getString( nIndex++ ) );
+        demand.setStatusText( daoUtil.getString( nIndex++ ) );
+        demand.setIdDemandType( daoUtil.getString( nIndex++ ) );
+        demand.setDemandType( daoUtil.getString( nIndex++ ) );
+        demand.setIdApplication( daoUtil.getInt( nIndex++ ) );
+        demand.setDemandData( strDemandData );
+        nIndex++;
+        demand.setCreationDate( daoUtil.getTimestamp( nIndex++ ) );
+        demand.setIsClosed( daoUtil.getBoolean( nIndex++ ) );
+        demand.setEnvironment( Environment.getEnvironment( daoUtil.getString( nIndex++ ) ) );
+    }
+
+    /**
+     * Get the JSON reader of a demand class, built once by class
+     * 
+     * @param demandClass
+     *            the demand class
+     * @return the reader
+     */
+    private static ObjectReader getReader( Class<?> demandClass )
+    {
+        return _mapReaders.computeIfAbsent( demandClass, _mapper::readerFor );
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
-    public <T extends Demand> List<T> selectListFullDemands( int nIdApplication, List<DemandType> listDemandType, Plugin plugin )
+    public <T extends Demand> List<T> selectListFullDemands( int nIdApplication, Plugin plugin )
     {
         List<T> demandList = new ArrayList<>( );
         try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL_BY_APPLICATION, plugin ) )
@@ -385,17 +545,13 @@ public final class DemandDAO implements IDemandDAO
 	                // TODO use finally for free because this throws
 	                String strDemandData = daoUtil.getString( 7 );
 	                String strDemandType = daoUtil.getString( 4 );
-	                T demand = (T) _mapper.readValue( strDemandData, DemandTypeService.getClassByDemandTypeId( strDemandType, listDemandType ) );
-	                demand.setId( daoUtil.getInt( 1 ) );
-	                demand.setIdUserFront( daoUtil.getString( 2 ) );
-	                demand.setStatusText( daoUtil.getString( 3 ) );
-	                demand.setIdDemandType( strDemandType );
-	                demand.setDemandType( daoUtil.getString( 5 ) );
-	                demand.setIdApplication( daoUtil.getInt( 6 ) );
-	                demand.setDemandData( strDemandData );
-	                demand.setCreationDate( daoUtil.getTimestamp( 8 ) );
-	                demand.setIsClosed( daoUtil.getBoolean( 9 ) );
-	                demand.setEnvironment( Environment.getEnvironment( daoUtil.getString( 10 ) ) );
+	                Class<? extends Demand> demandClass = DemandTypeService.getClassByDemandTypeId( strDemandType );
+	                if ( demandClass == null )
+	                {
+	                    AppLogService.error( "Unknown demand type " + strDemandType + " of the demand " + daoUtil.getInt( 1 ) + ", loaded as a demand" );
+	                }
+	                T demand = getReader( ( demandClass != null ) ? demandClass : Demand.class ).readValue( strDemandData );
+	                fillRow( daoUtil, demand, strDemandData );
 	
 	                demandList.add( demand );
 	            }
@@ -415,77 +571,377 @@ public final class DemandDAO implements IDemandDAO
      * {@inheritDoc }
      */
     @Override
-    public List<Demand> selectDemandsListByFilter( DemandFilter filter, Plugin plugin )
+    public List<DemandSummary> selectDemandSummariesListByFilter( DemandFilter filter, DemandCursor cursor, int nPageSize, Plugin plugin )
     {
-        List<Demand> demandList = new ArrayList<>( );
-        StringBuilder strSqlQuery = new StringBuilder( SQL_QUERY_SELECTALL );
+        List<DemandSummary> demandList = new ArrayList<>( );
+
+        try( DAOUtil daoUtil = new DAOUtil( getSummariesListQuery( filter, cursor ), plugin ) )
+        {
+            int nIndex = setFilterParameters( daoUtil, filter, cursor );
+            daoUtil.setInt( nIndex, nPageSize );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                DemandSummary demand = getSummaryRow( daoUtil );
+
+                demandList.add( demand );
+            }
+
+            daoUtil.free( );
+        }
+        return demandList;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int selectDemandsCountByFilter( DemandFilter filter, Plugin plugin )
+    {
+        int nCount = 0;
+        StringBuilder strSqlQuery = new StringBuilder( SQL_QUERY_COUNT );
+        appendFilter( strSqlQuery, filter, null );
+
+        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery.toString( ), plugin ) )
+        {
+            setFilterParameters( daoUtil, filter, null );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                nCount = daoUtil.getInt( 1 );
+            }
+
+            daoUtil.free( );
+        }
+        return nCount;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public DemandCursor selectDemandCursorByFilter( DemandFilter filter, int nOffset, Plugin plugin )
+    {
+        DemandCursor cursor = null;
+        String strSortExpression = SORT_EXPRESSIONS.get( filter.getSortAttribute( ) );
+        StringBuilder strSqlQuery = new StringBuilder( ( strSortExpression != null ) ? String.format( CONSTANT_SELECT_SORT_CURSOR, strSortExpression )
+                : SQL_QUERY_SELECT_CURSOR );
+        appendFilter( strSqlQuery, filter, null );
+        appendOrderBy( strSqlQuery, filter );
+        strSqlQuery.append( CONSTANT_LIMIT_ONE_OFFSET );
+
+        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery.toString( ), plugin ) )
+        {
+            int nIndex = setFilterParameters( daoUtil, filter, null );
+            daoUtil.setInt( nIndex, nOffset );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                cursor = ( strSortExpression != null ) ? new DemandCursor( daoUtil.getString( 1 ), daoUtil.getInt( 2 ) )
+                        : new DemandCursor( daoUtil.getTimestamp( 1 ), daoUtil.getInt( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return cursor;
+    }
+
+    /**
+     * Build the query of a page of the demand summaries list. Its last parameter is the size of the page
+     * 
+     * @param filter
+     *            the demand filter
+     * @param cursor
+     *            the keyset cursor, may be null
+     * @return the query
+     */
+    private String getSummariesListQuery( DemandFilter filter, DemandCursor cursor )
+    {
+        StringBuilder strSqlQuery = new StringBuilder( SQL_QUERY_SELECTALL_SUMMARY );
+        appendFilter( strSqlQuery, filter, cursor );
+        appendOrderBy( strSqlQuery, filter );
+        strSqlQuery.append( CONSTANT_LIMIT );
+
+        return strSqlQuery.toString( );
+    }
+
+    /**
+     * Append the order by clause of the filter to the query : the sort attribute, or the creation date, then the id of the demand
+     * 
+     * @param strSqlQuery
+     *            the query
+     * @param filter
+     *            the demand filter
+     */
+    private void appendOrderBy( StringBuilder strSqlQuery, DemandFilter filter )
+    {
+        String strSortExpression = SORT_EXPRESSIONS.get( filter.getSortAttribute( ) );
+
+        strSqlQuery.append( CONSTANT_ORDER_BY );
+        if ( strSortExpression != null )
+        {
+            strSqlQuery.append( String.format( filter.isAscSort( ) ? CONSTANT_ORDER_BY_SORT_ASC : CONSTANT_ORDER_BY_SORT_DESC, strSortExpression ) );
+        }
+        else
+        {
+            strSqlQuery.append( filter.isAscSort( ) ? CONSTANT_ORDER_BY_KEYSET_ASC : CONSTANT_ORDER_BY_KEYSET_DESC );
+        }
+    }
+
+    /**
+     * Check if the state of the demands must be joined for the sort only
+     * 
+     * @param filter
+     *            the demand filter
+     * @return true if the state is joined for the sort
+     */
+    private static boolean isStateSortJoin( DemandFilter filter )
+    {
+        return !filter.hasState( ) && DemandFilter.SORT_WORKFLOW_STATE.equals( filter.getSortAttribute( ) );
+    }
+
+    /**
+     * Append the join and the where clauses of the filter to the query
+     * 
+     * @param strSqlQuery
+     *            the query
+     * @param filter
+     *            the demand filter
+     * @param cursor
+     *            the keyset cursor, may be null
+     */
+    private void appendFilter( StringBuilder strSqlQuery, DemandFilter filter, DemandCursor cursor )
+    {
+        List<String> listClauses = new ArrayList<>( );
+        String strSortAttribute = filter.getSortAttribute( );
 
+        // The joins needed by the sort only are outer joins, so that they don't change the filtered demands
         if ( filter.hasApplication( ) )
         {
             strSqlQuery.append( CONSTANT_INNER_JOIN_APPLICATION );
         }
+        else
+            if ( DemandFilter.SORT_CODE_APPLICATION.equals( strSortAttribute ) || DemandFilter.SORT_NAME_APPLICATION.equals( strSortAttribute ) )
+            {
+                strSqlQuery.append( CONSTANT_LEFT_JOIN_APPLICATION );
+            }
+        if ( filter.hasState( ) )
+        {
+            strSqlQuery.append( CONSTANT_INNER_JOIN_STATE );
+        }
+        else
+            if ( DemandFilter.SORT_LABEL_DEMAND_TYPE.equals( strSortAttribute ) || isStateSortJoin( filter ) )
+            {
+                strSqlQuery.append( CONSTANT_LEFT_JOIN_DEMAND_TYPE );
+            }
+        if ( isStateSortJoin( filter ) )
+        {
+            strSqlQuery.append( CONSTANT_LEFT_JOIN_STATE );
+        }
+        if ( filter.hasEnvironmentPrefix( ) )
+        {
+            listClauses.add( CONSTANT_WHERE_ENVIRONMENT );
+        }
+        if ( filter.hasApplication( ) )
+        {
+            listClauses.add( CONSTANT_WHERE_APPLICATION );
+        }
+        if ( filter.hasIdDemandType( ) )
+        {
+            listClauses.add( CONSTANT_WHERE_ID_DEMAND_TYPE );
+        }
+        if ( filter.hasState( ) )
+        {
+            listClauses.add( CONSTANT_WHERE_STATE );
+        }
+        if ( filter.hasAuthorizedIdDemandType( ) )
+        {
+            listClauses.add( getAuthorizedIdDemandTypeClause( filter.getListAuthorizedIdDemandType( ) ) );
+        }
+        if ( cursor != null )
+        {
+            String strSortExpression = SORT_EXPRESSIONS.get( strSortAttribute );
+            if ( strSortExpression != null )
+            {
+                listClauses.add( String.format( filter.isAscSort( ) ? CONSTANT_WHERE_SORT_CURSOR_ASC : CONSTANT_WHERE_SORT_CURSOR_DESC, strSortExpression ) );
+            }
+            else
+            {
+                listClauses.add( filter.isAscSort( ) ? CONSTANT_WHERE_CURSOR_ASC : CONSTANT_WHERE_CURSOR_DESC );
+            }
+        }
 
-        if ( filter.hasEnvironmentPrefix( ) || filter.hasApplication( ) || filter.hasIdDemandType( ) )
+        if ( !listClauses.isEmpty( ) )
         {
             strSqlQuery.append( CONSTANT_WHERE );
+            strSqlQuery.append( String.join( CONSTANT_AND, listClauses ) );
+        }
+    }
+
+    /**
+     * Build the IN clause on the authorized demand types
+     * 
+     * @param listIdDemandType
+     *            the authorized demand type ids
+     * @return the clause
+     */
+    private String getAuthorizedIdDemandTypeClause( List<String> listIdDemandType )
+    {
+        if ( listIdDemandType == null || listIdDemandType.isEmpty( ) )
+        {
+            return CONSTANT_WHERE_NONE;
+        }
+
+        return CONSTANT_WHERE_AUTHORIZED_ID_DEMAND_TYPE + String.join( CONSTANT_COMMA, Collections.nCopies( listIdDemandType.size( ), CONSTANT_PARAMETER ) )
+                + CONSTANT_CLOSE_PARENTHESIS;
+    }
+
+    /**
+     * Set the parameters of the filter in the query
+     * 
+     * @param daoUtil
+     *            the daoUtil
+     * @param filter
+     *            the demand filter
+     * @param cursor
+     *            the keyset cursor, may be null
+     * @return the index of the next parameter
+     */
+    private int setFilterParameters( DAOUtil daoUtil, DemandFilter filter, DemandCursor cursor )
+    {
+        int nIndex = 1;
+        if ( isStateSortJoin( filter ) )
+        {
+            daoUtil.setString( nIndex++, Demand.WORKFLOW_RESOURCE_TYPE );
         }
-        boolean bFirstFilterStatement = false;
         if ( filter.hasEnvironmentPrefix( ) )
         {
-            strSqlQuery.append( CONSTANT_WHERE_ENVIRONMENT );
-            bFirstFilterStatement = true;
+            daoUtil.setString( nIndex++, filter.getEnvironmentPrefix( ) );
         }
         if ( filter.hasApplication( ) )
         {
-            if ( bFirstFilterStatement )
+            daoUtil.setString( nIndex++, CONSTANT_WILDCARD + filter.getApplication( ) + CONSTANT_WILDCARD );
+            daoUtil.setString( nIndex++, CONSTANT_WILDCARD + filter.getApplication( ) + CONSTANT_WILDCARD );
+        }
+        if ( filter.hasIdDemandType( ) )
+        {
+            daoUtil.setString( nIndex++, filter.getIdDemandType( ) );
+        }
+        if ( filter.hasState( ) )
+        {
+            daoUtil.setString( nIndex++, Demand.WORKFLOW_RESOURCE_TYPE );
+            daoUtil.setString( nIndex++, filter.getState( ) );
+        }
+        if ( filter.hasAuthorizedIdDemandType( ) && filter.getListAuthorizedIdDemandType( ) != null )
+        {
+            for ( String strIdDemandType : filter.getListAuthorizedIdDemandType( ) )
             {
-                strSqlQuery.append( CONSTANT_AND );
+                daoUtil.setString( nIndex++, strIdDemandType );
             }
-            strSqlQuery.append( CONSTANT_WHERE_APPLICATION );
-            bFirstFilterStatement = true;
         }
-        if ( filter.hasIdDemandType( ) )
+        if ( cursor != null && SORT_EXPRESSIONS.containsKey( filter.getSortAttribute( ) ) )
         {
-            if ( bFirstFilterStatement )
+            daoUtil.setString( nIndex++, cursor.getSortValue( ) );
+            daoUtil.setString( nIndex++, cursor.getSortValue( ) );
+            daoUtil.setInt( nIndex++, cursor.getIdDemand( ) );
+        }
+        else
+            if ( cursor != null )
             {
-                strSqlQuery.append( CONSTANT_AND );
+                daoUtil.setTimestamp( nIndex++, cursor.getCreationDate( ) );
+                daoUtil.setTimestamp( nIndex++, cursor.getCreationDate( ) );
+                daoUtil.setInt( nIndex++, cursor.getIdDemand( ) );
             }
-            strSqlQuery.append( CONSTANT_WHERE_ID_DEMAND_TYPE );
-            bFirstFilterStatement = true;
+        return nIndex;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, State> selectStatesByIdDemands( List<Integer> listIdDemand, int nIdWorkflow, Plugin plugin )
+    {
+        Map<Integer, State> mapStates = new HashMap<>( );
+        if ( listIdDemand.isEmpty( ) )
+        {
+            return mapStates;
         }
 
-        strSqlQuery.append( CONSTANT_ORDER_BY );
-        strSqlQuery.append( CONSTANT_ORDER_BY_CREATION_DATE );
+        String strSqlQuery = SQL_QUERY_SELECT_STATES + String.join( CONSTANT_COMMA, Collections.nCopies( listIdDemand.size( ), CONSTANT_PARAMETER ) )
+                + CONSTANT_CLOSE_PARENTHESIS;
+        Map<Integer, State> mapStatesById = new HashMap<>( );
 
-        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery.toString( ), plugin ) )
+        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery, plugin ) )
         {
-	        int nIndex = 1;
-	        if ( filter.hasEnvironmentPrefix( ) )
-	        {
-	            daoUtil.setString( nIndex++, filter.getEnvironmentPrefix( ) );
-	
-	        }
-	        if ( filter.hasApplication( ) )
-	        {
-	            daoUtil.setString( nIndex++, CONSTANT_WILDCARD + filter.getApplication( ) + CONSTANT_WILDCARD );
-	            daoUtil.setString( nIndex++, CONSTANT_WILDCARD + filter.getApplication( ) + CONSTANT_WILDCARD );
-	        }
-	        if ( filter.hasIdDemandType( ) )
-	        {
-	            daoUtil.setString( nIndex++, filter.getIdDemandType( ) );
-	        }
-	
-	        daoUtil.executeQuery( );
-	
-	        while ( daoUtil.next( ) )
-	        {
-	            Demand demand = getRow( daoUtil );
-	
-	            demandList.add( demand );
-	        }
-	
-	        daoUtil.free( );
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, Demand.WORKFLOW_RESOURCE_TYPE );
+            daoUtil.setInt( nIndex++, nIdWorkflow );
+            for ( Integer nIdDemand : listIdDemand )
+            {
+                daoUtil.setInt( nIndex++, nIdDemand );
+            }
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                nIndex = 1;
+                int nIdDemand = daoUtil.getInt( nIndex++ );
+                int nIdState = daoUtil.getInt( nIndex++ );
+                State state = mapStatesById.get( nIdState );
+
+                if ( state == null )
+                {
+                    state = new State( );
+                    state.setId( nIdState );
+                    state.setName( daoUtil.getString( nIndex++ ) );
+                    state.setDescription( daoUtil.getString( nIndex++ ) );
+                    state.setInitialState( daoUtil.getBoolean( nIndex++ ) );
+                    mapStatesById.put( nIdState, state );
+                }
+
+                mapStates.put( nIdDemand, state );
+            }
+
+            daoUtil.free( );
         }
-        return demandList;
+        return mapStates;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<Integer, List<Integer>> selectIdDemandsByWorkflow( List<Integer> listIdDemand, Plugin plugin )
+    {
+        Map<Integer, List<Integer>> mapIdDemands = new HashMap<>( );
+        if ( listIdDemand.isEmpty( ) )
+        {
+            return mapIdDemands;
+        }
+
+        String strSqlQuery = SQL_QUERY_SELECT_WORKFLOWS + String.join( CONSTANT_COMMA, Collections.nCopies( listIdDemand.size( ), CONSTANT_PARAMETER ) )
+                + CONSTANT_CLOSE_PARENTHESIS;
+
+        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, Demand.WORKFLOW_RESOURCE_TYPE );
+            for ( Integer nIdDemand : listIdDemand )
+            {
+                daoUtil.setInt( nIndex++, nIdDemand );
+            }
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapIdDemands.computeIfAbsent( daoUtil.getInt( 1 ), k -> new ArrayList<>( ) ).add( daoUtil.getInt( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return mapIdDemands;
     }
 }
@@ -33,20 +33,35 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Class for process filtering in BO DemandJspBean
  */
 public class DemandFilter
 {
+    public static final String SORT_CODE_APPLICATION = "codeApplication";
+    public static final String SORT_NAME_APPLICATION = "nameApplication";
+    public static final String SORT_LABEL_DEMAND_TYPE = "labelDemandType";
+    public static final String SORT_WORKFLOW_STATE = "workflowState";
+    public static final String SORT_ID_USER_FRONT = "idUserFront";
+    private static final List<String> SORT_ATTRIBUTES = Arrays.asList( SORT_CODE_APPLICATION, SORT_NAME_APPLICATION, SORT_LABEL_DEMAND_TYPE,
+            SORT_WORKFLOW_STATE, SORT_ID_USER_FRONT );
+
     private String _strApplication;
     private String _strEnvironmentPrefix;
     private String _strState;
     private String _strIdDemandType;
+    private List<String> _listAuthorizedIdDemandType;
+    private String _strSortAttribute;
 
     private boolean _bHasApplication;
     private boolean _bHasEnvironmentPrefix;
     private boolean _bHasState;
     private boolean _bHasIdDemandType;
+    private boolean _bHasAuthorizedIdDemandType;
+    private boolean _bAscSort;
 
     /**
      * Constructor for demand Filter
@@ -57,6 +72,8 @@ public class DemandFilter
         _bHasEnvironmentPrefix = false;
         _bHasState = false;
         _bHasIdDemandType = false;
+        _bHasAuthorizedIdDemandType = false;
+        _bAscSort = false;
     }
 
     /**
@@ -226,4 +243,88 @@ public class DemandFilter
         _bHasIdDemandType = bHasIdDemandType;
     }
 
+    /**
+     * Get the list of the demand type ids the user is authorized to see
+     * 
+     * @return the list of authorized demand type ids
+     */
+    public List<String> getListAuthorizedIdDemandType( )
+    {
+        return _listAuthorizedIdDemandType;
+    }
+
+    /**
+     * Set the list of the demand type ids the user is authorized to see
+     * 
+     * @param listAuthorizedIdDemandType
+     *            the list of authorized demand type ids
+     */
+    public void setListAuthorizedIdDemandType( List<String> listAuthorizedIdDemandType )
+    {
+        _listAuthorizedIdDemandType = listAuthorizedIdDemandType;
+    }
+
+    /**
+     * Has a constraint on the authorized demand types
+     * 
+     * @return the authorized demand types constraint boolean
+     */
+    public boolean hasAuthorizedIdDemandType( )
+    {
+        return _bHasAuthorizedIdDemandType;
+    }
+
+    /**
+     * Set the authorized demand types constraint boolean
+     * 
+     * @param bHasAuthorizedIdDemandType
+     *            the authorized demand types constraint boolean
+     */
+    public void setHasAuthorizedIdDemandType( boolean bHasAuthorizedIdDemandType )
+    {
+        _bHasAuthorizedIdDemandType = bHasAuthorizedIdDemandType;
+    }
+
+    /**
+     * Is the list sorted in ascending order
+     * 
+     * @return true if the sort is ascending, false otherwise
+     */
+    public boolean isAscSort( )
+    {
+        return _bAscSort;
+    }
+
+    /**
+     * Set the sort order
+     * 
+     * @param bAscSort
+     *            true for an ascending sort
+     */
+    public void setAscSort( boolean bAscSort )
+    {
+        _bAscSort = bAscSort;
+    }
+
+    /**
+     * Get the attribute the list is sorted on
+     * 
+     * @return the sort attribute, or null if the list is sorted on the creation date
+     */
+    public String getSortAttribute( )
+    {
+        return _strSortAttribute;
+    }
+
+    /**
+     * Set the attribute the list is sorted on. The list is sorted on the creation date if the attribute is not one of the SORT_* attributes
+     * 
+     * @param strSortAttribute
+     *            the sort attribute
+     */
+    public void setSortAttribute( String strSortAttribute )
+    {
+        _strSortAttribute = SORT_ATTRIBUTES.contains( strSortAttribute ) ? strSortAttribute : null;
+    }
+
 }
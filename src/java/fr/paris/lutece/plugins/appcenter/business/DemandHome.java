@@ -35,18 +35,16 @@ package fr.paris.lutece.plugins.appcenter.business;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
-import fr.paris.lutece.plugins.workflowcore.business.state.State;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.portal.service.util.AppLogService;
-import fr.paris.lutece.portal.service.workflow.WorkflowService;
 import fr.paris.lutece.util.ReferenceList;
+import fr.paris.lutece.plugins.workflowcore.business.state.State;
 import java.io.IOException;
-import java.util.ArrayList;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class provides instances management methods (create, find, ...) for Demand objects
@@ -109,6 +107,29 @@ public final class DemandHome
         _dao.delete( nKey, _plugin );
     }
 
+    /**
+     * Remove all the demands of an application
+     * 
+     * @param nIdApplication
+     *            The application Id
+     */
+    public static void removeByApplication( int nIdApplication )
+    {
+        _dao.deleteByApplication( nIdApplication, _plugin );
+    }
+
+    /**
+     * Returns the demand type of each demand of an application
+     * 
+     * @param nIdApplication
+     *            The application Id
+     * @return the map of the id of the demand types by id of demand
+     */
+    public static Map<Integer, String> getIdDemandTypesByApplication( int nIdApplication )
+    {
+        return _dao.selectIdDemandTypesByApplication( nIdApplication, _plugin );
+    }
+
     /**
      * Returns an instance of a demand whose identifier is specified in parameter
      * 
@@ -133,6 +154,19 @@ public final class DemandHome
         return _dao.load( nKey, demandClass, _plugin );
     }
 
+    /**
+     * Returns an instance of a demand whose identifier is specified in parameter, as an instance of the class of its demand type. The demand is read
+     * with a single query
+     * 
+     * @param nKey
+     *            The demand primary key
+     * @return an instance of the class of the demand type, or of Demand if this class is not found
+     */
+    public static Demand findTypedByPrimaryKey( int nKey )
+    {
+        return _dao.loadTyped( nKey, _plugin );
+    }
+
     /**
      * Load the data of all the demand objects and returns them as a list
      * 
@@ -193,36 +227,74 @@ public final class DemandHome
 
     public static <T extends Demand> List<T> getListFullDemandsByIdApplication( int nIdApplication )
     {
-        return _dao.selectListFullDemands( nIdApplication, DemandTypeHome.getDemandTypesList( ), _plugin );
+        return _dao.selectListFullDemands( nIdApplication, _plugin );
     }
 
     /**
-     * Load the data of all the demand objects and returns them as a list
+     * Load a page of the summaries of the filtered demand objects, starting after the given keyset cursor
      * 
      * @param filter
-     * @return the list which contains the data of all the demand objects
+     *            the demand filter
+     * @param cursor
+     *            the keyset cursor on the last demand of the previous page, null for the first page
+     * @param nPageSize
+     *            the size of the page
+     * @return the list which contains the summaries of the page of demand objects
      */
-    public static List<Demand> getDemandsListByFilter( DemandFilter filter )
+    public static List<DemandSummary> getDemandSummariesListByFilter( DemandFilter filter, DemandCursor cursor, int nPageSize )
     {
-        List<Demand> filteredDemandList = _dao.selectDemandsListByFilter( filter, _plugin );
+        return _dao.selectDemandSummariesListByFilter( filter, cursor, nPageSize, _plugin );
+    }
 
-        if ( filter.hasState( ) )
-        {
-            List<Demand> demandList = new ArrayList<>( );
+    /**
+     * Count the filtered demand objects
+     * 
+     * @param filter
+     *            the demand filter
+     * @return the number of demands
+     */
+    public static int getDemandsCountByFilter( DemandFilter filter )
+    {
+        return _dao.selectDemandsCountByFilter( filter, _plugin );
+    }
 
-            for ( Demand demand : filteredDemandList )
-            {
-                int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
-                State state = WorkflowService.getInstance( ).getState( demand.getId( ), Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
-                if ( filter.getState( ).equals( state.getName( ) ) )
-                {
-                    demandList.add( demand );
-                }
-            }
+    /**
+     * Get the keyset cursor of the filtered demand at the given position
+     * 
+     * @param filter
+     *            the demand filter
+     * @param nOffset
+     *            the position of the demand
+     * @return the cursor, or null if there is no demand at this position
+     */
+    public static DemandCursor getDemandCursorByFilter( DemandFilter filter, int nOffset )
+    {
+        return _dao.selectDemandCursorByFilter( filter, nOffset, _plugin );
+    }
 
-            return demandList;
-        }
+    /**
+     * Load the workflow states of a list of demands which use the same workflow
+     * 
+     * @param listIdDemand
+     *            the ids of the demands
+     * @param nIdWorkflow
+     *            the id of the workflow
+     * @return the map of the states by id of demand
+     */
+    public static Map<Integer, State> getStatesByIdDemands( List<Integer> listIdDemand, int nIdWorkflow )
+    {
+        return _dao.selectStatesByIdDemands( listIdDemand, nIdWorkflow, _plugin );
+    }
 
-        return filteredDemandList;
+    /**
+     * Load the workflows in which a list of demands have a workflow resource, whatever their demand type
+     * 
+     * @param listIdDemand
+     *            the ids of the demands
+     * @return the map of the ids of demand by id of workflow
+     */
+    public static Map<Integer, List<Integer>> getIdDemandsByWorkflow( List<Integer> listIdDemand )
+    {
+        return _dao.selectIdDemandsByWorkflow( listIdDemand, _plugin );
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Header columns of a demand, loaded without its content for the list screens
+ */
+public class DemandSummary implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private int _nId;
+    private String _strIdUserFront;
+    private String _strStatusText;
+    private String _strIdDemandType;
+    private String _strDemandType;
+    private int _nIdApplication;
+    private Timestamp _creationDate;
+    private boolean _bIsClosed;
+    private Environment _environment;
+
+    /**
+     * Returns the id of the demand
+     * 
+     * @return the id of the demand
+     */
+    public int getId( )
+    {
+        return _nId;
+    }
+
+    /**
+     * Sets the id of the demand
+     * 
+     * @param nId
+     *            the id of the demand
+     */
+    public void setId( int nId )
+    {
+        _nId = nId;
+    }
+
+    /**
+     * Returns the id of the front user of the demand creator
+     * 
+     * @return the id of the front user of the demand creator
+     */
+    public String getIdUserFront( )
+    {
+        return _strIdUserFront;
+    }
+
+    /**
+     * Sets the id of the front user of the demand creator
+     * 
+     * @param strIdUserFront
+     *            the id of the front user of the demand creator
+     */
+    public void setIdUserFront( String strIdUserFront )
+    {
+        _strIdUserFront = strIdUserFront;
+    }
+
+    /**
+     * Returns the status text
+     * 
+     * @return the status text
+     */
+    public String getStatusText( )
+    {
+        return _strStatusText;
+    }
+
+    /**
+     * Sets the status text
+     * 
+     * @param strStatusText
+     *            the status text
+     */
+    public void setStatusText( String strStatusText )
+    {
+        _strStatusText = strStatusText;
+    }
+
+    /**
+     * Returns the id of the demand type
+     * 
+     * @return the id of the demand type
+     */
+    public String getIdDemandType( )
+    {
+        return _strIdDemandType;
+    }
+
+    /**
+     * Sets the id of the demand type
+     * 
+     * @param strIdDemandType
+     *            the id of the demand type
+     */
+    public void setIdDemandType( String strIdDemandType )
+    {
+        _strIdDemandType = strIdDemandType;
+    }
+
+    /**
+     * Returns the demand type
+     * 
+     * @return the demand type
+     */
+    public String getDemandType( )
+    {
+        return _strDemandType;
+    }
+
+    /**
+     * Sets the demand type
+     * 
+     * @param strDemandType
+     *            the demand type
+     */
+    public void setDemandType( String strDemandType )
+    {
+        _strDemandType = strDemandType;
+    }
+
+    /**
+     * Returns the id of the application
+     * 
+     * @return the id of the application
+     */
+    public int getIdApplication( )
+    {
+        return _nIdApplication;
+    }
+
+    /**
+     * Sets the id of the application
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     */
+    public void setIdApplication( int nIdApplication )
+    {
+        _nIdApplication = nIdApplication;
+    }
+
+    /**
+     * Returns the creation date
+     * 
+     * @return the creation date
+     */
+    public Timestamp getCreationDate( )
+    {
+        return _creationDate;
+    }
+
+    /**
+     * Sets the creation date
+     * 
+     * @param creationDate
+     *            the creation date
+     */
+    public void setCreationDate( Timestamp creationDate )
+    {
+        _creationDate = creationDate;
+    }
+
+    /**
+     * Returns true if the demand is closed
+     * 
+     * @return true if the demand is closed
+     */
+    public boolean isClosed( )
+    {
+        return _bIsClosed;
+    }
+
+    /**
+     * Sets true if the demand is closed
+     * 
+     * @param bIsClosed
+     *            true if the demand is closed
+     */
+    public void setIsClosed( boolean bIsClosed )
+    {
+        _bIsClosed = bIsClosed;
+    }
+
+    /**
+     * Returns the environment of the demand
+     * 
+     * @return the environment of the demand
+     */
+    public Environment getEnvironment( )
+    {
+        return _environment;
+    }
+
+    /**
+     * Sets the environment of the demand
+     * 
+     * @param environment
+     *            the environment of the demand
+     */
+    public void setEnvironment( Environment environment )
+    {
+        _environment = environment;
+    }
+}
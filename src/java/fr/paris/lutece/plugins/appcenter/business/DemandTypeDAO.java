@@ -50,7 +50,7 @@ public final class DemandTypeDAO implements IDemandTypeDAO
     // Constants
     private static final String SQL_QUERY_SELECT = "SELECT id, id_demand_type, id_workflow, java_class , label, description, question,  id_category_demand_type, n_order FROM appcenter_demand_type WHERE id = ?";
     private static final String SQL_QUERY_SELECT_BY_ID_DEMAND_TYPE = "SELECT id, id_demand_type, id_workflow , java_class , label, description, question,  id_category_demand_type, n_order FROM appcenter_demand_type WHERE id_demand_type = ?";
-    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_demand_type SELECT MAX(id+1), ?, ? ,? , ?,  ?, ?, ?,  COALESCE( MAX(n_order+1) , 1 )  FROM appcenter_demand_type ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_demand_type ( id_demand_type, id_workflow, java_class, label, description, question, id_category_demand_type, n_order ) SELECT ?, ?, ?, ?, ?, ?, ?, COALESCE( MAX( n_order ) + 1, 1 ) FROM appcenter_demand_type ";
     private static final String SQL_QUERY_DELETE = "DELETE FROM appcenter_demand_type WHERE id = ? ";
     private static final String SQL_QUERY_UPDATE = "UPDATE appcenter_demand_type SET id = ?, id_demand_type = ?, id_workflow = ?, java_class = ?, label = ?, description = ?, question = ? , id_category_demand_type = ?, n_order = ? WHERE id = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT appcenter_demand_type.id, appcenter_demand_type.id_demand_type, appcenter_demand_type.id_workflow, appcenter_demand_type.java_class , appcenter_demand_type.label, appcenter_demand_type.description, appcenter_demand_type.question, appcenter_demand_type.id_category_demand_type, appcenter_demand_type.n_order, appcenter_documentation.id_documentation, appcenter_documentation.id_demand_type, appcenter_documentation.label, appcenter_documentation.url, appcenter_documentation.category FROM appcenter_demand_type LEFT JOIN appcenter_documentation ON appcenter_documentation.id_demand_type = appcenter_demand_type.id ORDER BY n_order";
@@ -33,6 +33,7 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.plugins.appcenter.service.DemandTypeRegistry;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -66,6 +67,7 @@ public final class DemandTypeHome
     public static DemandType create( DemandType demandType )
     {
         _dao.insert( demandType, _plugin );
+        DemandTypeRegistry.invalidate( );
 
         return demandType;
     }
@@ -80,6 +82,7 @@ public final class DemandTypeHome
     public static DemandType update( DemandType demandType )
     {
         _dao.store( demandType, _plugin );
+        DemandTypeRegistry.invalidate( );
 
         return demandType;
     }
@@ -93,6 +96,7 @@ public final class DemandTypeHome
     public static void remove( int nKey )
     {
         _dao.delete( nKey, _plugin );
+        DemandTypeRegistry.invalidate( );
     }
 
     /**
@@ -33,6 +33,7 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.portal.business.physicalfile.PhysicalFile;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
 import java.util.List;
@@ -98,6 +99,17 @@ public interface IApplicationDAO
      */
     Application loadByCode( String strCode, Plugin plugin );
 
+    /**
+     * Load the logo of an application
+     * 
+     * @param nKey
+     *            The identifier of the application
+     * @param plugin
+     *            the Plugin
+     * @return The logo or null if the application has no logo
+     */
+    PhysicalFile loadLogo( int nKey, Plugin plugin );
+
     /**
      * Load the data of all the application objects and returns them as a list
      * 
@@ -118,6 +130,21 @@ public interface IApplicationDAO
      */
     List<Application> selectApplicationsListByFilter( ApplicationFilter filter, Plugin plugin );
 
+    /**
+     * Load the applications on which a user has a permission through his global role, or through his role on the application when he has no global role.
+     * When the user has several roles there, the role with the lowest id decides, as in AuthorizationService.isAuthorized. The data and the logo of the
+     * applications are not loaded
+     * 
+     * @param strUserId
+     *            The user Id
+     * @param strPermissionCode
+     *            The permission code
+     * @param plugin
+     *            the Plugin
+     * @return The list of the applications
+     */
+    List<Application> selectApplicationsListByUserPermission( String strUserId, String strPermissionCode, Plugin plugin );
+
     /**
      * Load the data of all the application objects and returns them as a referenceList
      * 
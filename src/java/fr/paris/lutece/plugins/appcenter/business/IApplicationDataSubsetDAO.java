@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import java.util.Map;
+
+/**
+ * IApplicationDataSubsetDAO Interface
+ */
+public interface IApplicationDataSubsetDAO
+{
+    /**
+     * Insert or replace the JSON of a data subset of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @param strSubsetData
+     *            The JSON of the subset
+     * @param plugin
+     *            the Plugin
+     */
+    void store( int nIdApplication, String strSubsetName, String strSubsetData, Plugin plugin );
+
+    /**
+     * Delete all the data subsets of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByIdApplication( int nIdApplication, Plugin plugin );
+
+    // /////////////////////////////////////////////////////////////////////////
+    // Finders
+
+    /**
+     * Load the JSON of a data subset of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @param plugin
+     *            the Plugin
+     * @return The JSON of the subset or null if the application has no such subset
+     */
+    String load( int nIdApplication, String strSubsetName, Plugin plugin );
+
+    /**
+     * Load the JSON of a data subset of an application and lock its row until the end of the current transaction
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strSubsetName
+     *            The name of the subset
+     * @param plugin
+     *            the Plugin
+     * @return The JSON of the subset or null if the application has no such subset
+     */
+    String loadForUpdate( int nIdApplication, String strSubsetName, Plugin plugin );
+
+    /**
+     * Load the JSON of all the data subsets of an application
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param plugin
+     *            the Plugin
+     * @return The map of the JSON of the subsets, by subset name
+     */
+    Map<String, String> selectByIdApplication( int nIdApplication, Plugin plugin );
+
+    /**
+     * Load the legacy application_data column of the applications which have no data subset row
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return The map of the legacy JSON documents, by application id
+     */
+    Map<Integer, String> selectLegacyApplicationData( Plugin plugin );
+}
@@ -33,10 +33,12 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.plugins.workflowcore.business.state.State;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * IDemandDAO Interface
@@ -73,6 +75,27 @@ public interface IDemandDAO
      */
     void delete( int nKey, Plugin plugin );
 
+    /**
+     * Delete all the demands of an application
+     * 
+     * @param nIdApplication
+     *            The identifier of the application
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByApplication( int nIdApplication, Plugin plugin );
+
+    /**
+     * Load the demand type of each demand of an application
+     * 
+     * @param nIdApplication
+     *            The identifier of the application
+     * @param plugin
+     *            the Plugin
+     * @return The map of the id of the demand types by id of demand
+     */
+    Map<Integer, String> selectIdDemandTypesByApplication( int nIdApplication, Plugin plugin );
+
     // /////////////////////////////////////////////////////////////////////////
     // Finders
 
@@ -100,6 +123,17 @@ public interface IDemandDAO
      */
     <T extends Demand> T load( int nKey, Class<T> demandClass, Plugin plugin );
 
+    /**
+     * Load the data from the table as an instance of the class of the demand type
+     * 
+     * @param nKey
+     *            The identifier of the demand
+     * @param plugin
+     *            the Plugin
+     * @return The instance of the demand
+     */
+    Demand loadTyped( int nKey, Plugin plugin );
+
     /**
      * Load the data of all the demand objects and returns them as a list
      * 
@@ -156,19 +190,71 @@ public interface IDemandDAO
      * 
      * @param <T>
      * @param nIdApplication
-     * @param listDemandType
      * @param plugin
      * @return the full demand list
      */
-    <T extends Demand> List<T> selectListFullDemands( int nIdApplication, List<DemandType> listDemandType, Plugin plugin );
+    <T extends Demand> List<T> selectListFullDemands( int nIdApplication, Plugin plugin );
 
     /**
-     * Load the data of all the demand objects filtered and returns them as a list
+     * Load a page of the summaries of the demand objects filtered, starting after the given keyset cursor. The content of the demands is not loaded
      * 
      * @param filter
+     *            the demand filter
+     * @param cursor
+     *            the keyset cursor on the last demand of the previous page, null for the first page
+     * @param nPageSize
+     *            the maximum number of demands to load
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the summaries of the page of filtered demand objects
+     */
+    List<DemandSummary> selectDemandSummariesListByFilter( DemandFilter filter, DemandCursor cursor, int nPageSize, Plugin plugin );
+
+    /**
+     * Count the demand objects filtered
+     * 
+     * @param filter
+     *            the demand filter
+     * @param plugin
+     *            the Plugin
+     * @return the number of filtered demand objects
+     */
+    int selectDemandsCountByFilter( DemandFilter filter, Plugin plugin );
+
+    /**
+     * Load the keyset cursor of the filtered demand at the given position
+     * 
+     * @param filter
+     *            the demand filter
+     * @param nOffset
+     *            the position of the demand in the filtered list
+     * @param plugin
+     *            the Plugin
+     * @return the cursor, or null if there is no demand at this position
+     */
+    DemandCursor selectDemandCursorByFilter( DemandFilter filter, int nOffset, Plugin plugin );
+
+    /**
+     * Load the workflow states of a list of demands which use the same workflow
+     * 
+     * @param listIdDemand
+     *            the ids of the demands
+     * @param nIdWorkflow
+     *            the id of the workflow
+     * @param plugin
+     *            the Plugin
+     * @return the map of the states by id of demand, the demands without state are not in the map
+     */
+    Map<Integer, State> selectStatesByIdDemands( List<Integer> listIdDemand, int nIdWorkflow, Plugin plugin );
+
+    /**
+     * Load the workflows in which a list of demands have a workflow resource
+     * 
+     * @param listIdDemand
+     *            the ids of the demands
      * @param plugin
      *            the Plugin
-     * @return The list which contains the data of all the filtered demand objects
+     * @return the map of the ids of demand by id of workflow
      */
-    List<Demand> selectDemandsListByFilter( DemandFilter filter, Plugin plugin );
+    Map<Integer, List<Integer>> selectIdDemandsByWorkflow( List<Integer> listIdDemand, Plugin plugin );
 }
@@ -36,6 +36,8 @@ package fr.paris.lutece.plugins.appcenter.business;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * IUserApplicationRoleDAO Interface
@@ -149,6 +151,17 @@ public interface IUserApplicationRoleDAO
      */
     List<UserApplicationRole> selectUserApplicationRolesListByIdApplication( int strIdApplication, Plugin plugin );
 
+    /**
+     * Load the codes of the roles of the users of an application
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @param plugin
+     *            the Plugin
+     * @return The map of the codes of the roles, by id user
+     */
+    Map<String, Set<String>> selectRoleCodesByIdApplication( int nIdApplication, Plugin plugin );
+
     /**
      * Load the data of all the userApplicationRole objects by id user and returns them as a list
      * 
@@ -33,6 +33,7 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.plugins.appcenter.service.AuthorizationCacheService;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -66,6 +67,7 @@ public final class PermissionRoleHome
     public static PermissionRole create( PermissionRole permissionRole )
     {
         _dao.insert( permissionRole, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateRolePermissions( );
 
         return permissionRole;
     }
@@ -80,6 +82,7 @@ public final class PermissionRoleHome
     public static void remove( String strPermissionCode, int nIdRole, String strResourceCode )
     {
         _dao.delete( strPermissionCode, nIdRole, strResourceCode, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateRolePermissions( );
     }
 
     /**
@@ -33,6 +33,7 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.plugins.appcenter.service.AuthorizationCacheService;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
@@ -69,6 +70,7 @@ public final class RoleHome
     public static Role create( Role role )
     {
         _dao.insert( role, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateRolePermissions( );
 
         return role;
     }
@@ -83,6 +85,7 @@ public final class RoleHome
     public static Role update( Role role )
     {
         _dao.store( role, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateRolePermissions( );
 
         return role;
     }
@@ -96,6 +99,7 @@ public final class RoleHome
     public static void remove( int nKey )
     {
         _dao.delete( nKey, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateRolePermissions( );
     }
 
     /**
@@ -39,7 +39,11 @@ import fr.paris.lutece.util.sql.DAOUtil;
 import java.sql.Statement;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class provides Data Access methods for UserApplicationRole objects
@@ -59,6 +63,7 @@ public final class UserApplicationRoleDAO implements IUserApplicationRoleDAO
     private static final String SQL_QUERY_SELECTALL_BY_ID_USER = SQL_QUERY_SELECTALL + " WHERE id_user = ? ";
     private static final String SQL_QUERY_SELECTALL_BY_ID_APPLICATION = SQL_QUERY_SELECTALL + " WHERE id_application = ? ";
     private static final String SQL_QUERY_SELECTALL_BY_ID_APPLICATION_AND_ID_USER = SQL_QUERY_SELECTALL + " WHERE id_application = ? AND id_user = ? ";
+    private static final String SQL_QUERY_SELECT_ROLE_CODES_BY_ID_APPLICATION = "SELECT uar.id_user, role.code FROM appcenter_user_application_role uar INNER JOIN appcenter_role role ON uar.id_role = role.id_role WHERE uar.id_application = ? ORDER BY uar.id_user";
 
     // Constants
     private static final String CONSTANT_WHERE = " WHERE ";
@@ -392,6 +397,28 @@ public final class UserApplicationRoleDAO implements IUserApplicationRoleDAO
         return userApplicationRoleList;
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Map<String, Set<String>> selectRoleCodesByIdApplication( int nIdApplication, Plugin plugin )
+    {
+        Map<String, Set<String>> mapRoleCodes = new LinkedHashMap<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_ROLE_CODES_BY_ID_APPLICATION, plugin ) )
+        {
+            daoUtil.setInt( 1, nIdApplication );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                mapRoleCodes.computeIfAbsent( daoUtil.getString( 1 ), user -> new HashSet<>( ) ).add( daoUtil.getString( 2 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return mapRoleCodes;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -33,12 +33,15 @@
  */
 package fr.paris.lutece.plugins.appcenter.business;
 
+import fr.paris.lutece.plugins.appcenter.service.AuthorizationCacheService;
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.util.ReferenceList;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class provides instances management methods (create, find, ...) for UserApplicationRole objects
@@ -66,6 +69,7 @@ public final class UserApplicationRoleHome
     public static UserApplicationRole create( UserApplicationRole userApplicationRole )
     {
         _dao.insert( userApplicationRole, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateUser( userApplicationRole.getIdUser( ) );
 
         return userApplicationRole;
     }
@@ -80,6 +84,8 @@ public final class UserApplicationRoleHome
     public static UserApplicationRole update( UserApplicationRole userApplicationRoleOld, UserApplicationRole userApplicationRole )
     {
         _dao.store( userApplicationRoleOld, userApplicationRole, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateUser( userApplicationRoleOld.getIdUser( ) );
+        AuthorizationCacheService.getInstance( ).invalidateUser( userApplicationRole.getIdUser( ) );
 
         return userApplicationRole;
     }
@@ -94,6 +100,7 @@ public final class UserApplicationRoleHome
     public static void remove( int nRoleId, int nApplicationId, String strUserId )
     {
         _dao.delete( nRoleId, nApplicationId, strUserId, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateUser( strUserId );
     }
 
     /**
@@ -104,6 +111,7 @@ public final class UserApplicationRoleHome
     public static void removeByIdUser( String strUserId )
     {
         _dao.deleteByIdUser( strUserId, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateUser( strUserId );
     }
 
     /**
@@ -115,6 +123,7 @@ public final class UserApplicationRoleHome
     public static void removeByApplicationIdAndUserId( int nApplicationId, String strUserId )
     {
         _dao.deleteByApplicationIdAndUserId( nApplicationId, strUserId, _plugin );
+        AuthorizationCacheService.getInstance( ).invalidateUser( strUserId );
     }
 
     /**
@@ -170,6 +179,18 @@ public final class UserApplicationRoleHome
         return _dao.selectUserApplicationRolesListByIdApplication( nIdApplication, _plugin );
     }
 
+    /**
+     * Load the codes of the roles of the users of an application, with a single query
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @return the map of the codes of the roles, by id user
+     */
+    public static Map<String, Set<String>> getRoleCodesByIdApplication( int nIdApplication )
+    {
+        return _dao.selectRoleCodesByIdApplication( nIdApplication, _plugin );
+    }
+
     /**
      * Load the data of all the userApplicationRole objects by id application and returns them as a list
      * 
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business.notification;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * INotificationDAO Interface
+ */
+public interface INotificationDAO
+{
+    /**
+     * Insert a new record in the table.
+     * 
+     * @param notification
+     *            instance of the Notification object to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insert( Notification notification, Plugin plugin );
+
+    /**
+     * Update the number of attempts and the next attempt date of a notification, and release its claim
+     * 
+     * @param notification
+     *            the reference of the Notification
+     * @param plugin
+     *            the Plugin
+     */
+    void storeAttempt( Notification notification, Plugin plugin );
+
+    /**
+     * Delete a record from the table
+     * 
+     * @param nKey
+     *            The identifier of the Notification to delete
+     * @param plugin
+     *            the Plugin
+     */
+    void delete( int nKey, Plugin plugin );
+
+    /**
+     * Load the data of the notification from the table
+     * 
+     * @param nKey
+     *            The identifier of the notification
+     * @param plugin
+     *            the Plugin
+     * @return The instance of the notification
+     */
+    Notification load( int nKey, Plugin plugin );
+
+    /**
+     * Load the ids of the notifications that can be sent at a given date and are not claimed, oldest first
+     * 
+     * @param date
+     *            The date
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     * @param nLimit
+     *            The maximum number of notifications to load
+     * @param plugin
+     *            the Plugin
+     * @return The list of the ids of the notifications
+     */
+    List<Integer> selectIdNotificationsToSend( Timestamp date, Timestamp dateClaimExpired, int nLimit, Plugin plugin );
+
+    /**
+     * Claim the notifications which are not claimed yet, or whose claim has expired
+     * 
+     * @param listIdNotifications
+     *            The ids of the notifications
+     * @param strClaimToken
+     *            The token of the claim
+     * @param dateClaim
+     *            The date of the claim
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     * @param plugin
+     *            the Plugin
+     */
+    void claim( List<Integer> listIdNotifications, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired, Plugin plugin );
+
+    /**
+     * Claim all the notifications of a digest for some recipients which can be sent at the claim date and are not claimed yet, or whose claim has
+     * expired
+     * 
+     * @param strDigestKey
+     *            The key of the digest
+     * @param strRecipients
+     *            The recipients
+     * @param strClaimToken
+     *            The token of the claim
+     * @param dateClaim
+     *            The date of the claim
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     * @param plugin
+     *            the Plugin
+     */
+    void claimDigest( String strDigestKey, String strRecipients, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired, Plugin plugin );
+
+    /**
+     * Load the notifications holding a claim, oldest first
+     * 
+     * @param strClaimToken
+     *            The token of the claim
+     * @param plugin
+     *            the Plugin
+     * @return The list of the notifications
+     */
+    List<Notification> selectClaimedNotifications( String strClaimToken, Plugin plugin );
+
+    /**
+     * Load the date at which the pending notifications of a digest will be sent to some recipients
+     * 
+     * @param strDigestKey
+     *            The key of the digest
+     * @param strRecipients
+     *            The recipients
+     * @param plugin
+     *            the Plugin
+     * @return The date, or null if there is no pending notification
+     */
+    Timestamp selectDigestNextAttemptDate( String strDigestKey, String strRecipients, Plugin plugin );
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business.notification;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * This is the business class for the object Notification : a mail waiting in the outbound notification queue
+ */
+public class Notification implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // Variables declarations
+    private int _nId;
+    private String _strRecipients;
+    private String _strSenderName;
+    private String _strSenderEmail;
+    private String _strSubject;
+    private String _strMessage;
+    private Timestamp _dateCreation;
+    private int _nNbAttempts;
+    private Timestamp _dateNextAttempt;
+    private String _strDigestKey;
+
+    /**
+     * Returns the Id
+     * 
+     * @return The Id
+     */
+    public int getId( )
+    {
+        return _nId;
+    }
+
+    /**
+     * Sets the Id
+     * 
+     * @param nId
+     *            The Id
+     */
+    public void setId( int nId )
+    {
+        _nId = nId;
+    }
+
+    /**
+     * Returns the recipients, separated by semicolons
+     * 
+     * @return The recipients
+     */
+    public String getRecipients( )
+    {
+        return _strRecipients;
+    }
+
+    /**
+     * Sets the recipients, separated by semicolons
+     * 
+     * @param strRecipients
+     *            The recipients
+     */
+    public void setRecipients( String strRecipients )
+    {
+        _strRecipients = strRecipients;
+    }
+
+    /**
+     * Returns the SenderName
+     * 
+     * @return The SenderName
+     */
+    public String getSenderName( )
+    {
+        return _strSenderName;
+    }
+
+    /**
+     * Sets the SenderName
+     * 
+     * @param strSenderName
+     *            The SenderName
+     */
+    public void setSenderName( String strSenderName )
+    {
+        _strSenderName = strSenderName;
+    }
+
+    /**
+     * Returns the SenderEmail
+     * 
+     * @return The SenderEmail
+     */
+    public String getSenderEmail( )
+    {
+        return _strSenderEmail;
+    }
+
+    /**
+     * Sets the SenderEmail
+     * 
+     * @param strSenderEmail
+     *            The SenderEmail
+     */
+    public void setSenderEmail( String strSenderEmail )
+    {
+        _strSenderEmail = strSenderEmail;
+    }
+
+    /**
+     * Returns the Subject
+     * 
+     * @return The Subject
+     */
+    public String getSubject( )
+    {
+        return _strSubject;
+    }
+
+    /**
+     * Sets the Subject
+     * 
+     * @param strSubject
+     *            The Subject
+     */
+    public void setSubject( String strSubject )
+    {
+        _strSubject = strSubject;
+    }
+
+    /**
+     * Returns the Message
+     * 
+     * @return The Message
+     */
+    public String getMessage( )
+    {
+        return _strMessage;
+    }
+
+    /**
+     * Sets the Message
+     * 
+     * @param strMessage
+     *            The Message
+     */
+    public void setMessage( String strMessage )
+    {
+        _strMessage = strMessage;
+    }
+
+    /**
+     * Returns the CreationDate
+     * 
+     * @return The CreationDate
+     */
+    public Timestamp getCreationDate( )
+    {
+        return _dateCreation;
+    }
+
+    /**
+     * Sets the CreationDate
+     * 
+     * @param dateCreation
+     *            The CreationDate
+     */
+    public void setCreationDate( Timestamp dateCreation )
+    {
+        _dateCreation = dateCreation;
+    }
+
+    /**
+     * Returns the number of failed sending attempts
+     * 
+     * @return The number of attempts
+     */
+    public int getNbAttempts( )
+    {
+        return _nNbAttempts;
+    }
+
+    /**
+     * Sets the number of failed sending attempts
+     * 
+     * @param nNbAttempts
+     *            The number of attempts
+     */
+    public void setNbAttempts( int nNbAttempts )
+    {
+        _nNbAttempts = nNbAttempts;
+    }
+
+    /**
+     * Returns the date from which the notification can be sent
+     * 
+     * @return The NextAttemptDate
+     */
+    public Timestamp getNextAttemptDate( )
+    {
+        return _dateNextAttempt;
+    }
+
+    /**
+     * Sets the date from which the notification can be sent
+     * 
+     * @param dateNextAttempt
+     *            The NextAttemptDate
+     */
+    public void setNextAttemptDate( Timestamp dateNextAttempt )
+    {
+        _dateNextAttempt = dateNextAttempt;
+    }
+
+    /**
+     * Returns the key of the digest the notification belongs to. The notifications of a digest sent to the same recipients are gathered in one mail
+     * 
+     * @return The DigestKey, or null if the notification is sent alone
+     */
+    public String getDigestKey( )
+    {
+        return _strDigestKey;
+    }
+
+    /**
+     * Sets the key of the digest the notification belongs to
+     * 
+     * @param strDigestKey
+     *            The DigestKey, or null if the notification is sent alone
+     */
+    public void setDigestKey( String strDigestKey )
+    {
+        _strDigestKey = strDigestKey;
+    }
+}
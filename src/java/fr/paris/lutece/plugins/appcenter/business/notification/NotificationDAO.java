@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business.notification;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class provides Data Access methods for Notification objects
+ */
+public final class NotificationDAO implements INotificationDAO
+{
+    // Constants
+    private static final String SQL_QUERY_SELECT = "SELECT id_notification, recipients, sender_name, sender_email, subject, message, creation_date, nb_attempts, next_attempt_date, digest_key FROM appcenter_notification_queue WHERE id_notification = ?";
+    private static final String SQL_QUERY_SELECT_ID_TO_SEND = "SELECT id_notification FROM appcenter_notification_queue WHERE next_attempt_date <= ? AND ( claim_token IS NULL OR claim_date < ? ) ORDER BY next_attempt_date, id_notification LIMIT ?";
+    private static final String SQL_QUERY_SELECT_CLAIMED = "SELECT id_notification, recipients, sender_name, sender_email, subject, message, creation_date, nb_attempts, next_attempt_date, digest_key FROM appcenter_notification_queue WHERE claim_token = ? ORDER BY next_attempt_date, id_notification";
+    private static final String SQL_QUERY_CLAIM_DIGEST = "UPDATE appcenter_notification_queue SET claim_token = ?, claim_date = ? WHERE digest_key = ? AND recipients = ? AND next_attempt_date <= ? AND ( claim_token IS NULL OR claim_date < ? )";
+    private static final String SQL_QUERY_CLAIM = "UPDATE appcenter_notification_queue SET claim_token = ?, claim_date = ? WHERE ( claim_token IS NULL OR claim_date < ? ) AND id_notification IN ( ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO appcenter_notification_queue ( recipients, sender_name, sender_email, subject, message, creation_date, nb_attempts, next_attempt_date, digest_key ) VALUES ( ?, ?, ?, ?, ?, ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_SELECT_DIGEST_NEXT_ATTEMPT = "SELECT MIN( next_attempt_date ) FROM appcenter_notification_queue WHERE digest_key = ? AND recipients = ? AND nb_attempts = 0";
+    private static final String SQL_QUERY_UPDATE_ATTEMPT = "UPDATE appcenter_notification_queue SET nb_attempts = ?, next_attempt_date = ?, claim_token = NULL, claim_date = NULL WHERE id_notification = ?";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM appcenter_notification_queue WHERE id_notification = ? ";
+    private static final String CONSTANT_PARAMETER = "?";
+    private static final String CONSTANT_COMMA = ",";
+    private static final String CONSTANT_CLOSE_PARENTHESIS = " ) ";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( Notification notification, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, Statement.RETURN_GENERATED_KEYS, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, notification.getRecipients( ) );
+            daoUtil.setString( nIndex++, notification.getSenderName( ) );
+            daoUtil.setString( nIndex++, notification.getSenderEmail( ) );
+            daoUtil.setString( nIndex++, notification.getSubject( ) );
+            daoUtil.setString( nIndex++, notification.getMessage( ) );
+            daoUtil.setTimestamp( nIndex++, notification.getCreationDate( ) );
+            daoUtil.setInt( nIndex++, notification.getNbAttempts( ) );
+            daoUtil.setTimestamp( nIndex++, notification.getNextAttemptDate( ) );
+            daoUtil.setString( nIndex++, notification.getDigestKey( ) );
+
+            daoUtil.executeUpdate( );
+            if ( daoUtil.nextGeneratedKey( ) )
+            {
+                notification.setId( daoUtil.getGeneratedKeyInt( 1 ) );
+            }
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void storeAttempt( Notification notification, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE_ATTEMPT, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setInt( nIndex++, notification.getNbAttempts( ) );
+            daoUtil.setTimestamp( nIndex++, notification.getNextAttemptDate( ) );
+            daoUtil.setInt( nIndex++, notification.getId( ) );
+
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void delete( int nKey, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin ) )
+        {
+            daoUtil.setInt( 1, nKey );
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Notification load( int nKey, Plugin plugin )
+    {
+        Notification notification = null;
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT, plugin ) )
+        {
+            daoUtil.setInt( 1, nKey );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                notification = dataToObject( daoUtil );
+            }
+
+            daoUtil.free( );
+        }
+        return notification;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Integer> selectIdNotificationsToSend( Timestamp date, Timestamp dateClaimExpired, int nLimit, Plugin plugin )
+    {
+        List<Integer> listIdNotifications = new ArrayList<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_ID_TO_SEND, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setTimestamp( nIndex++, date );
+            daoUtil.setTimestamp( nIndex++, dateClaimExpired );
+            daoUtil.setInt( nIndex++, nLimit );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listIdNotifications.add( daoUtil.getInt( 1 ) );
+            }
+
+            daoUtil.free( );
+        }
+        return listIdNotifications;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void claim( List<Integer> listIdNotifications, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired, Plugin plugin )
+    {
+        if ( listIdNotifications.isEmpty( ) )
+        {
+            return;
+        }
+
+        String strSqlQuery = SQL_QUERY_CLAIM + String.join( CONSTANT_COMMA, Collections.nCopies( listIdNotifications.size( ), CONSTANT_PARAMETER ) )
+                + CONSTANT_CLOSE_PARENTHESIS;
+
+        try( DAOUtil daoUtil = new DAOUtil( strSqlQuery, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, strClaimToken );
+            daoUtil.setTimestamp( nIndex++, dateClaim );
+            daoUtil.setTimestamp( nIndex++, dateClaimExpired );
+            for ( Integer nIdNotification : listIdNotifications )
+            {
+                daoUtil.setInt( nIndex++, nIdNotification );
+            }
+
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void claimDigest( String strDigestKey, String strRecipients, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired, Plugin plugin )
+    {
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_CLAIM_DIGEST, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, strClaimToken );
+            daoUtil.setTimestamp( nIndex++, dateClaim );
+            daoUtil.setString( nIndex++, strDigestKey );
+            daoUtil.setString( nIndex++, strRecipients );
+            daoUtil.setTimestamp( nIndex++, dateClaim );
+            daoUtil.setTimestamp( nIndex++, dateClaimExpired );
+
+            daoUtil.executeUpdate( );
+            daoUtil.free( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<Notification> selectClaimedNotifications( String strClaimToken, Plugin plugin )
+    {
+        List<Notification> listNotifications = new ArrayList<>( );
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_CLAIMED, plugin ) )
+        {
+            daoUtil.setString( 1, strClaimToken );
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listNotifications.add( dataToObject( daoUtil ) );
+            }
+
+            daoUtil.free( );
+        }
+        return listNotifications;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Timestamp selectDigestNextAttemptDate( String strDigestKey, String strRecipients, Plugin plugin )
+    {
+        Timestamp date = null;
+        try( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_DIGEST_NEXT_ATTEMPT, plugin ) )
+        {
+            daoUtil.setString( 1, strDigestKey );
+            daoUtil.setString( 2, strRecipients );
+            daoUtil.executeQuery( );
+
+            if ( daoUtil.next( ) )
+            {
+                date = daoUtil.getTimestamp( 1 );
+            }
+
+            daoUtil.free( );
+        }
+        return date;
+    }
+
+    /**
+     * Build a notification from the current row of a DAOUtil
+     * 
+     * @param daoUtil
+     *            The DAOUtil
+     * @return The notification
+     */
+    private static Notification dataToObject( DAOUtil daoUtil )
+    {
+        Notification notification = new Notification( );
+        int nIndex = 1;
+        notification.setId( daoUtil.getInt( nIndex++ ) );
+        notification.setRecipients( daoUtil.getString( nIndex++ ) );
+        notification.setSenderName( daoUtil.getString( nIndex++ ) );
+        notification.setSenderEmail( daoUtil.getString( nIndex++ ) );
+        notification.setSubject( daoUtil.getString( nIndex++ ) );
+        notification.setMessage( daoUtil.getString( nIndex++ ) );
+        notification.setCreationDate( daoUtil.getTimestamp( nIndex++ ) );
+        notification.setNbAttempts( daoUtil.getInt( nIndex++ ) );
+        notification.setNextAttemptDate( daoUtil.getTimestamp( nIndex++ ) );
+        notification.setDigestKey( daoUtil.getString( nIndex++ ) );
+
+        return notification;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business.notification;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * This class provides instances management methods (create, find, ...) for the outbound notification queue
+ */
+public final class NotificationHome
+{
+    // Static variable pointed at the DAO instance
+    private static INotificationDAO _dao = SpringContextService.getBean( "appcenter.notificationDAO" );
+    private static Plugin _plugin = PluginService.getPlugin( "appcenter" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private NotificationHome( )
+    {
+    }
+
+    /**
+     * Create an instance of the notification class
+     * 
+     * @param notification
+     *            The instance of the Notification which contains the informations to store
+     * @return The instance of notification which has been created with its primary key.
+     */
+    public static Notification create( Notification notification )
+    {
+        _dao.insert( notification, _plugin );
+
+        return notification;
+    }
+
+    /**
+     * Update the number of attempts and the next attempt date of a notification, and release its claim
+     * 
+     * @param notification
+     *            The instance of the Notification
+     */
+    public static void updateAttempt( Notification notification )
+    {
+        _dao.storeAttempt( notification, _plugin );
+    }
+
+    /**
+     * Remove the notification whose identifier is specified in parameter
+     * 
+     * @param nKey
+     *            The notification Id
+     */
+    public static void remove( int nKey )
+    {
+        _dao.delete( nKey, _plugin );
+    }
+
+    /**
+     * Returns an instance of a notification whose identifier is specified in parameter
+     * 
+     * @param nKey
+     *            The notification primary key
+     * @return an instance of Notification
+     */
+    public static Notification findByPrimaryKey( int nKey )
+    {
+        return _dao.load( nKey, _plugin );
+    }
+
+    /**
+     * Load the ids of the notifications that can be sent at a given date and are not claimed, oldest first
+     * 
+     * @param date
+     *            The date
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     * @param nLimit
+     *            The maximum number of notifications to load
+     * @return The list of the ids of the notifications
+     */
+    public static List<Integer> getIdNotificationsToSend( Timestamp date, Timestamp dateClaimExpired, int nLimit )
+    {
+        return _dao.selectIdNotificationsToSend( date, dateClaimExpired, nLimit, _plugin );
+    }
+
+    /**
+     * Claim the notifications which are not claimed yet, or whose claim has expired. Only one of the concurrent claims of a notification succeeds
+     * 
+     * @param listIdNotifications
+     *            The ids of the notifications
+     * @param strClaimToken
+     *            The token of the claim
+     * @param dateClaim
+     *            The date of the claim
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     */
+    public static void claim( List<Integer> listIdNotifications, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired )
+    {
+        _dao.claim( listIdNotifications, strClaimToken, dateClaim, dateClaimExpired, _plugin );
+    }
+
+    /**
+     * Claim all the notifications of a digest for some recipients which can be sent at the claim date and are not claimed yet, or whose claim has
+     * expired
+     * 
+     * @param strDigestKey
+     *            The key of the digest
+     * @param strRecipients
+     *            The recipients
+     * @param strClaimToken
+     *            The token of the claim
+     * @param dateClaim
+     *            The date of the claim
+     * @param dateClaimExpired
+     *            The date before which a claim has expired
+     */
+    public static void claimDigest( String strDigestKey, String strRecipients, String strClaimToken, Timestamp dateClaim, Timestamp dateClaimExpired )
+    {
+        _dao.claimDigest( strDigestKey, strRecipients, strClaimToken, dateClaim, dateClaimExpired, _plugin );
+    }
+
+    /**
+     * Load the notifications holding a claim, oldest first
+     * 
+     * @param strClaimToken
+     *            The token of the claim
+     * @return The list of the notifications
+     */
+    public static List<Notification> getClaimedNotifications( String strClaimToken )
+    {
+        return _dao.selectClaimedNotifications( strClaimToken, _plugin );
+    }
+
+    /**
+     * Find the date at which the pending notifications of a digest will be sent to some recipients
+     * 
+     * @param strDigestKey
+     *            The key of the digest
+     * @param strRecipients
+     *            The recipients
+     * @return The date, or null if there is no pending notification
+     */
+    public static Timestamp findDigestNextAttemptDate( String strDigestKey, String strRecipients )
+    {
+        return _dao.selectDigestNextAttemptDate( strDigestKey, strRecipients, _plugin );
+    }
+}
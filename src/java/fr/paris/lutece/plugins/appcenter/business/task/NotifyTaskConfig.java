@@ -42,6 +42,8 @@ public class NotifyTaskConfig extends TaskConfig
     String _strSubject;
     String _strMessage;
     String _strSenderName;
+    boolean _bDigest;
+    int _nDigestWindow;
 
     /**
      * Get the subject
@@ -145,4 +147,46 @@ public class NotifyTaskConfig extends TaskConfig
         _nIdMailingList = nIdMailingList;
     }
 
+    /**
+     * Get the digest mode : the notifications of a recipient are gathered in one mail
+     * 
+     * @return true if the digest mode is enabled
+     */
+    public boolean isDigest( )
+    {
+        return _bDigest;
+    }
+
+    /**
+     * Set the digest mode
+     * 
+     * @param bDigest
+     *            true to gather the notifications of a recipient in one mail
+     */
+    public void setDigest( boolean bDigest )
+    {
+        _bDigest = bDigest;
+    }
+
+    /**
+     * Get the number of minutes during which the notifications of a recipient are gathered in the digest mode
+     * 
+     * @return the digest window
+     */
+    public int getDigestWindow( )
+    {
+        return _nDigestWindow;
+    }
+
+    /**
+     * Set the number of minutes during which the notifications of a recipient are gathered in the digest mode
+     * 
+     * @param nDigestWindow
+     *            the digest window
+     */
+    public void setDigestWindow( int nDigestWindow )
+    {
+        _nDigestWindow = nDigestWindow;
+    }
+
 }
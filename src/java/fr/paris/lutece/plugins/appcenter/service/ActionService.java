@@ -73,10 +73,27 @@ public class ActionService
      * @param request
      * @param nIdApplication
      * @param resourceTypeConfig
-     * @return The list of authorized actions
+     * @return The list of authorized actions, shared between the users having the same role : it must not be modified
      */
     public static List<CategoryAction> getCategoryActionsListOfUserForApplication( HttpServletRequest request, int nIdApplication,
             ResourceTypeConfig resourceTypeConfig ) throws UserNotSignedException
+    {
+        User user = UserService.getCurrentUserInAppContext( request, nIdApplication );
+        Integer nIdRole = AuthorizationService.getIdRole( user.getId( ), nIdApplication );
+
+        return CategoryActionCacheService.getInstance( ).getCategoryActionsList( nIdRole, resourceTypeConfig );
+    }
+
+    /**
+     * Build the category actions list of a role
+     * 
+     * @param nIdRole
+     *            the id of the role, may be null
+     * @param resourceTypeConfig
+     *            the resource type configuration of the application
+     * @return The list of authorized actions
+     */
+    static List<CategoryAction> getCategoryActionsListOfRole( Integer nIdRole, ResourceTypeConfig resourceTypeConfig )
     {
         List<CategoryAction> listCategories = getCategoryActionsList( );
         for ( CategoryAction catAction : listCategories )
@@ -91,8 +108,7 @@ public class ActionService
                     continue;
                 }
                 Permission permission = PermissionService.getPermissionByCode( strPermissionCode );
-                User user = UserService.getCurrentUserInAppContext( request, nIdApplication );
-                if ( AuthorizationService.isAuthorized( user.getId( ), nIdApplication, strPermissionCode,
+                if ( AuthorizationService.isAuthorizedRole( nIdRole, strPermissionCode,
                         resourceTypeConfig.getResourceCode( permission.getResourceType( ).getRessourceTypeKey( ) ) ) )
                 {
                     listAuthorizedAction.add( action );
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.Application;
+import fr.paris.lutece.plugins.appcenter.business.User;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Objects loaded during an HTTP request, kept as a request attribute so that they are loaded only once per request
+ */
+public final class AppCenterRequestContext
+{
+    private static final String ATTRIBUTE_REQUEST_CONTEXT = AppCenterRequestContext.class.getName( );
+
+    private final Map<Integer, Application> _mapApplications = new HashMap<>( );
+    private final Map<Integer, User> _mapUsersInAppContext = new HashMap<>( );
+    private User _currentUser;
+
+    /**
+     * Private constructor
+     */
+    private AppCenterRequestContext( )
+    {
+    }
+
+    /**
+     * Get the context of a request, creating it on first use
+     * 
+     * @param request
+     *            the HTTP request
+     * @return the context
+     */
+    public static AppCenterRequestContext getInstance( HttpServletRequest request )
+    {
+        AppCenterRequestContext context = (AppCenterRequestContext) request.getAttribute( ATTRIBUTE_REQUEST_CONTEXT );
+        if ( context == null )
+        {
+            context = new AppCenterRequestContext( );
+            request.setAttribute( ATTRIBUTE_REQUEST_CONTEXT, context );
+        }
+        return context;
+    }
+
+    /**
+     * Get an application already loaded during the request
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @return the application or null if it has not been loaded yet
+     */
+    public Application getApplication( int nIdApplication )
+    {
+        return _mapApplications.get( nIdApplication );
+    }
+
+    /**
+     * Keep an application loaded during the request
+     * 
+     * @param application
+     *            the application
+     */
+    public void putApplication( Application application )
+    {
+        _mapApplications.put( application.getId( ), application );
+    }
+
+    /**
+     * Get the current user already loaded during the request
+     * 
+     * @return the user with all his roles or null if it has not been loaded yet
+     */
+    public User getCurrentUser( )
+    {
+        return _currentUser;
+    }
+
+    /**
+     * Keep the current user loaded during the request
+     * 
+     * @param user
+     *            the user with all his roles
+     */
+    public void setCurrentUser( User user )
+    {
+        _currentUser = user;
+    }
+
+    /**
+     * Get the current user in the context of an application, already built during the request
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @return the user with his roles on the application or null if it has not been built yet
+     */
+    public User getUserInAppContext( int nIdApplication )
+    {
+        return _mapUsersInAppContext.get( nIdApplication );
+    }
+
+    /**
+     * Keep the current user in the context of an application built during the request
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @param user
+     *            the user with his roles on the application
+     */
+    public void putUserInAppContext( int nIdApplication, User user )
+    {
+        _mapUsersInAppContext.put( nIdApplication, user );
+    }
+}
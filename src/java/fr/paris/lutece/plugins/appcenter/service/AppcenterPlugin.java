@@ -47,6 +47,7 @@ public class AppcenterPlugin extends PluginDefaultImplementation
     @Override
     public void init( )
     {
+        ApplicationService.migrateLegacyApplicationData( );
     }
 
     public static Plugin getPlugin( )
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fr.paris.lutece.plugins.appcenter.business.Application;
+import fr.paris.lutece.plugins.appcenter.business.ApplicationDataSubsetHome;
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Cache of the JSON tree of the data subsets of the applications
+ */
+public final class ApplicationDataCacheService extends AbstractCacheableService
+{
+    private static final String CACHE_NAME = "appcenter.applicationDataCacheService";
+    private static final String KEY_PREFIX = "application-";
+
+    private static ApplicationDataCacheService _singleton;
+    private static ObjectMapper _mapper = new ObjectMapper( );
+
+    // Incremented on each invalidation : a tree loaded while the data was invalidated may be stale and is not cached
+    private final AtomicLong _generation = new AtomicLong( );
+
+    /**
+     * Private constructor
+     */
+    private ApplicationDataCacheService( )
+    {
+    }
+
+    /**
+     * Get the unique instance of the service
+     * 
+     * @return the instance
+     */
+    public static synchronized ApplicationDataCacheService getInstance( )
+    {
+        if ( _singleton == null )
+        {
+            _singleton = new ApplicationDataCacheService( );
+            _singleton.initCache( );
+        }
+
+        return _singleton;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName( )
+    {
+        return CACHE_NAME;
+    }
+
+    /**
+     * Get the data subsets of an application as a single JSON tree. The returned tree is shared and must not be modified
+     * 
+     * @param application
+     *            the application
+     * @return the JSON tree
+     * @throws IOException
+     *             if the JSON of a subset can't be parsed
+     */
+    public JsonNode getApplicationDataTree( Application application ) throws IOException
+    {
+        String strKey = getCacheKey( application.getId( ) );
+
+        JsonNode nodeApplication = (JsonNode) getFromCache( strKey );
+        if ( nodeApplication == null )
+        {
+            long lGeneration = _generation.get( );
+            nodeApplication = loadApplicationDataTree( application );
+            if ( _generation.get( ) == lGeneration )
+            {
+                putInCache( strKey, nodeApplication );
+            }
+        }
+
+        return nodeApplication;
+    }
+
+    /**
+     * Remove the JSON tree of an application from the cache
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     */
+    public void invalidate( int nIdApplication )
+    {
+        _generation.incrementAndGet( );
+        removeKey( getCacheKey( nIdApplication ) );
+    }
+
+    /**
+     * Build the cache key of an application
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @return the key
+     */
+    private static String getCacheKey( int nIdApplication )
+    {
+        return KEY_PREFIX + nIdApplication;
+    }
+
+    /**
+     * Build the JSON tree of an application from its subset rows. The legacy application_data column is only read, never migrated here, for an
+     * application which has no subset row yet
+     * 
+     * @param application
+     *            the application
+     * @return the JSON tree
+     * @throws IOException
+     *             if the JSON can't be parsed
+     */
+    private static JsonNode loadApplicationDataTree( Application application ) throws IOException
+    {
+        Map<String, String> mapSubsets = ApplicationDataSubsetHome.findByIdApplication( application.getId( ) );
+        if ( mapSubsets.isEmpty( ) && StringUtils.isNotBlank( application.getApplicationData( ) ) )
+        {
+            return _mapper.readTree( application.getApplicationData( ) );
+        }
+
+        ObjectNode nodeApplication = _mapper.createObjectNode( );
+        for ( Map.Entry<String, String> subset : mapSubsets.entrySet( ) )
+        {
+            nodeApplication.set( subset.getKey( ), _mapper.readTree( subset.getValue( ) ) );
+        }
+
+        return nodeApplication;
+    }
+}
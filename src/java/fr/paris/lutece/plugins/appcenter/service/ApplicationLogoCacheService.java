@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.ApplicationHome;
+import fr.paris.lutece.portal.business.physicalfile.PhysicalFile;
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Cache of the logos of the applications, with the validators used by the HTTP conditional requests
+ */
+public final class ApplicationLogoCacheService extends AbstractCacheableService
+{
+    private static final String CACHE_NAME = "appcenter.applicationLogoCacheService";
+    private static final String KEY_PREFIX = "logo-";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CONTENT_TYPE_PNG = "image/png";
+    private static final String CONTENT_TYPE_JPEG = "image/jpeg";
+    private static final String CONTENT_TYPE_GIF = "image/gif";
+    private static final String CONTENT_TYPE_WEBP = "image/webp";
+    private static final byte [ ] MAGIC_PNG = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    private static final byte [ ] MAGIC_JPEG = {
+            (byte) 0xFF, (byte) 0xD8, (byte) 0xFF
+    };
+    private static final byte [ ] MAGIC_GIF87A = "GIF87a".getBytes( StandardCharsets.US_ASCII );
+    private static final byte [ ] MAGIC_GIF89A = "GIF89a".getBytes( StandardCharsets.US_ASCII );
+    private static final byte [ ] MAGIC_RIFF = "RIFF".getBytes( StandardCharsets.US_ASCII );
+    private static final byte [ ] MAGIC_WEBP = "WEBP".getBytes( StandardCharsets.US_ASCII );
+
+    private static ApplicationLogoCacheService _singleton;
+
+    /**
+     * Private constructor
+     */
+    private ApplicationLogoCacheService( )
+    {
+    }
+
+    /**
+     * Get the unique instance of the service
+     * 
+     * @return the instance
+     */
+    public static synchronized ApplicationLogoCacheService getInstance( )
+    {
+        if ( _singleton == null )
+        {
+            _singleton = new ApplicationLogoCacheService( );
+            _singleton.initCache( );
+        }
+
+        return _singleton;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName( )
+    {
+        return CACHE_NAME;
+    }
+
+    /**
+     * Get the logo of an application
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     * @return the logo or null if the application has no logo
+     */
+    public ApplicationLogo getLogo( int nIdApplication )
+    {
+        String strKey = KEY_PREFIX + nIdApplication;
+
+        ApplicationLogo logo = (ApplicationLogo) getFromCache( strKey );
+        if ( logo == null )
+        {
+            PhysicalFile physicalFile = ApplicationHome.findLogo( nIdApplication );
+            if ( physicalFile == null )
+            {
+                return null;
+            }
+            logo = new ApplicationLogo( physicalFile.getValue( ) );
+            putInCache( strKey, logo );
+        }
+
+        return logo;
+    }
+
+    /**
+     * Remove the logo of an application from the cache
+     * 
+     * @param nIdApplication
+     *            the id of the application
+     */
+    public void invalidate( int nIdApplication )
+    {
+        removeKey( KEY_PREFIX + nIdApplication );
+    }
+
+    /**
+     * Logo of an application
+     */
+    public static final class ApplicationLogo
+    {
+        private final byte [ ] _content;
+        private final String _strContentType;
+        private final String _strETag;
+
+        /**
+         * Constructor
+         * 
+         * @param content
+         *            the bytes of the logo
+         */
+        ApplicationLogo( byte [ ] content )
+        {
+            _content = content;
+            _strContentType = guessContentType( content );
+            _strETag = "\"" + DigestUtils.md5Hex( content ) + "\"";
+        }
+
+        /**
+         * Get the bytes of the logo
+         * 
+         * @return the bytes
+         */
+        public byte [ ] getContent( )
+        {
+            return _content;
+        }
+
+        /**
+         * Get the content type of the logo
+         * 
+         * @return the content type
+         */
+        public String getContentType( )
+        {
+            return _strContentType;
+        }
+
+        /**
+         * Get the entity tag of the logo
+         * 
+         * @return the quoted entity tag
+         */
+        public String getETag( )
+        {
+            return _strETag;
+        }
+
+        /**
+         * Check if the logo is an image of one of the allowed types, which may be displayed by the browsers
+         * 
+         * @return true if the logo is an allowed image
+         */
+        public boolean isImage( )
+        {
+            return !DEFAULT_CONTENT_TYPE.equals( _strContentType );
+        }
+
+        /**
+         * Get the content type of an image from its first bytes. Only the PNG, JPEG, GIF and WebP images are recognized : any other content, which could
+         * be HTML or XML, is an octet stream
+         * 
+         * @param content
+         *            the bytes
+         * @return the content type
+         */
+        private static String guessContentType( byte [ ] content )
+        {
+            if ( startsWith( content, 0, MAGIC_PNG ) )
+            {
+                return CONTENT_TYPE_PNG;
+            }
+            if ( startsWith( content, 0, MAGIC_JPEG ) )
+            {
+                return CONTENT_TYPE_JPEG;
+            }
+            if ( startsWith( content, 0, MAGIC_GIF87A ) || startsWith( content, 0, MAGIC_GIF89A ) )
+            {
+                return CONTENT_TYPE_GIF;
+            }
+            if ( startsWith( content, 0, MAGIC_RIFF ) && startsWith( content, 8, MAGIC_WEBP ) )
+            {
+                return CONTENT_TYPE_WEBP;
+            }
+            return DEFAULT_CONTENT_TYPE;
+        }
+
+        /**
+         * Check if the bytes contain a signature at an offset
+         * 
+         * @param content
+         *            the bytes
+         * @param nOffset
+         *            the offset
+         * @param signature
+         *            the signature
+         * @return true if the signature is found
+         */
+        private static boolean startsWith( byte [ ] content, int nOffset, byte [ ] signature )
+        {
+            if ( content == null || content.length < nOffset + signature.length )
+            {
+                return false;
+            }
+            for ( int i = 0; i < signature.length; i++ )
+            {
+                if ( content [nOffset + i] != signature [i] )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -36,6 +36,7 @@ package fr.paris.lutece.plugins.appcenter.service;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
@@ -44,22 +45,22 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import fr.paris.lutece.plugins.appcenter.business.Application;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationData;
+import fr.paris.lutece.plugins.appcenter.business.ApplicationDataSubsetHome;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationDatas;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationHome;
-import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
 import fr.paris.lutece.plugins.appcenter.util.AppCenterUtils;
-import fr.paris.lutece.portal.service.workflow.WorkflowService;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.ReferenceList;
-import java.util.ArrayList;
-import java.util.List;
+import fr.paris.lutece.util.sql.TransactionManager;
 
 /**
  * Application Service
@@ -69,23 +70,124 @@ public class ApplicationService
     private static ObjectMapper _mapper = new ObjectMapper( );
 
     /**
-     * Save a data subset into the global JSON data of an application
+     * Save a data subset of an application. Only the row of this subset is written. A caller saving the subset within its own transaction must invalidate
+     * the cached data of the application again once the transaction is committed
      * 
      * @param application
      *            The application
      * @param dataSubset
      *            The data subset
+     * @throws AppException
+     *             if the data subset can't be saved, so that the transaction of the caller is rolled back
      */
     public static void saveApplicationData( Application application, DataSubset dataSubset )
     {
         try
         {
-            String strUpdatedJson = getApplicationData( application, dataSubset );
-            ApplicationHome.updateData( application.getId( ), strUpdatedJson );
+            ApplicationDataSubsetHome.store( application.getId( ), dataSubset.getName( ), _mapper.writeValueAsString( dataSubset ) );
+            ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
         }
         catch( IOException ex )
         {
-            Logger.getLogger( ApplicationService.class.getName( ) ).log( Level.SEVERE, null, ex );
+            throw new AppException( "Unable to save the data subset " + dataSubset.getName( ) + " of the application " + application.getId( ), ex );
+        }
+    }
+
+    /**
+     * Replace the whole data of an application by a JSON document holding all its subsets. The document is parsed before anything is written, then the
+     * legacy column and the subset rows are replaced in the same transaction
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param strApplicationJson
+     *            The JSON document
+     * @throws IOException
+     *             if the JSON can't be parsed or isn't an object
+     */
+    public static void updateApplicationData( int nIdApplication, String strApplicationJson ) throws IOException
+    {
+        JsonNode nodeApplication = _mapper.readTree( strApplicationJson );
+        if ( nodeApplication == null || !nodeApplication.isObject( ) )
+        {
+            throw new IOException( "The data of the application " + nIdApplication + " is not a JSON object" );
+        }
+
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            ApplicationHome.updateData( nIdApplication, strApplicationJson );
+            ApplicationDataSubsetHome.removeByIdApplication( nIdApplication );
+            storeDataSubsets( nIdApplication, nodeApplication );
+
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            throw new AppException( "Unable to update the data of the application " + nIdApplication, e );
+        }
+        ApplicationDataCacheService.getInstance( ).invalidate( nIdApplication );
+    }
+
+    /**
+     * Explode the legacy application_data column of the applications which have no data subset row yet into one row per subset. Each application is
+     * migrated in its own transaction and an application whose data isn't a JSON object keeps it in the legacy column only
+     */
+    public static void migrateLegacyApplicationData( )
+    {
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        for ( Map.Entry<Integer, String> legacyData : ApplicationDataSubsetHome.findLegacyApplicationData( ).entrySet( ) )
+        {
+            int nIdApplication = legacyData.getKey( );
+            if ( StringUtils.isBlank( legacyData.getValue( ) ) )
+            {
+                continue;
+            }
+
+            try
+            {
+                JsonNode nodeApplication = _mapper.readTree( legacyData.getValue( ) );
+                if ( nodeApplication == null || !nodeApplication.isObject( ) )
+                {
+                    throw new IOException( "The data of the application " + nIdApplication + " is not a JSON object" );
+                }
+
+                TransactionManager.beginTransaction( plugin );
+                try
+                {
+                    storeDataSubsets( nIdApplication, nodeApplication );
+                    TransactionManager.commitTransaction( plugin );
+                }
+                catch( Exception e )
+                {
+                    TransactionManager.rollBack( plugin, e );
+                    throw new AppException( "Unable to migrate the data of the application " + nIdApplication, e );
+                }
+                ApplicationDataCacheService.getInstance( ).invalidate( nIdApplication );
+            }
+            catch( IOException | AppException ex )
+            {
+                Logger.getLogger( ApplicationService.class.getName( ) ).log( Level.SEVERE, null, ex );
+            }
+        }
+    }
+
+    /**
+     * Store each subset of the JSON tree holding the whole data of an application in its own row
+     * 
+     * @param nIdApplication
+     *            The id of the application
+     * @param nodeApplication
+     *            The JSON tree
+     */
+    private static void storeDataSubsets( int nIdApplication, JsonNode nodeApplication )
+    {
+        Iterator<Map.Entry<String, JsonNode>> iterator = nodeApplication.fields( );
+        while ( iterator.hasNext( ) )
+        {
+            Map.Entry<String, JsonNode> subset = iterator.next( );
+            ApplicationDataSubsetHome.store( nIdApplication, subset.getKey( ), subset.getValue( ).toString( ) );
         }
     }
 
@@ -109,8 +211,7 @@ public class ApplicationService
         {
             Method mGetDataSetName = applicationDatasClass.getMethod( "getName" );
             String strDataSetName = (String) mGetDataSetName.invoke( applicationDatasClass.newInstance( ), null );
-            String strApplicationJson = application.getApplicationData( );
-            return getDataSubset( strApplicationJson, strDataSetName, applicationDatasClass );
+            return getDataSubset( application, strDataSetName, applicationDatasClass );
         }
         catch( IOException | NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
                 | InstantiationException ex )
@@ -120,6 +221,41 @@ public class ApplicationService
         return null;
     }
 
+    /**
+     * Load a datasubset from the database, bypassing the cache, and lock its row until the end of the current transaction. This method must be called
+     * within a transaction, before modifying and saving the data subset.
+     * 
+     * @param <T>
+     *            The datasubset type
+     * @param application
+     *            The application
+     * @param applicationDatasClass
+     *            The class of the data subset
+     * @return The data subset as an object or null if the application has no such subset
+     * @throws AppException
+     *             if the data subset can't be read
+     */
+    public static <R extends ApplicationData, T extends ApplicationDatas<R>> T loadApplicationDataSubsetForUpdate( Application application,
+            Class<T> applicationDatasClass )
+    {
+        try
+        {
+            Method mGetDataSetName = applicationDatasClass.getMethod( "getName" );
+            String strDataSetName = (String) mGetDataSetName.invoke( applicationDatasClass.newInstance( ), null );
+            String strSubsetData = ApplicationDataSubsetHome.findByPrimaryKeyForUpdate( application.getId( ), strDataSetName );
+            if ( strSubsetData == null )
+            {
+                return null;
+            }
+            return _mapper.readValue( strSubsetData, applicationDatasClass );
+        }
+        catch( IOException | NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
+                | InstantiationException ex )
+        {
+            throw new AppException( "Unable to load the data subset of the application " + application.getId( ), ex );
+        }
+    }
+
     /**
      * Load a datasubset from the global JSON
      * 
@@ -137,8 +273,7 @@ public class ApplicationService
     {
         try
         {
-            String strApplicationJson = application.getApplicationData( );
-            return getDataSubset( strApplicationJson, strDataSubsetName, valueType );
+            return getDataSubset( application, strDataSubsetName, valueType );
         }
         catch( IOException ex )
         {
@@ -148,30 +283,23 @@ public class ApplicationService
     }
 
     /**
-     * Build a global JSON data of an application by adding or replacing a data subset
+     * Get the JSON document holding all the data subsets of an application
      * 
      * @param application
      *            The application
-     * @param dataSubset
-     *            The data subset
      * @return The JSON
-     * @throws IOException
-     *             if an error occurs
      */
-    static String getApplicationData( Application application, DataSubset dataSubset ) throws IOException
+    public static String getApplicationDataJson( Application application )
     {
-        String strApplicationJson = application.getApplicationData( );
-        JsonNode nodeApplication = _mapper.readTree( strApplicationJson );
-        JsonNode nodeData = nodeApplication.get( dataSubset.getName( ) );
-        if ( nodeData != null )
+        try
         {
-            ( (ObjectNode) nodeApplication ).replace( dataSubset.getName( ), _mapper.valueToTree( dataSubset ) );
+            return ApplicationDataCacheService.getInstance( ).getApplicationDataTree( application ).toString( );
         }
-        else
+        catch( IOException ex )
         {
-            ( (ObjectNode) nodeApplication ).set( dataSubset.getName( ), _mapper.valueToTree( dataSubset ) );
+            Logger.getLogger( ApplicationService.class.getName( ) ).log( Level.WARNING, null, ex );
         }
-        return nodeApplication.toString( );
+        return application.getApplicationData( );
     }
 
     /**
@@ -188,7 +316,7 @@ public class ApplicationService
         String strApplicationJson = application.getApplicationData( );
         try
         {
-            Object dataApplication = _mapper.readTree( strApplicationJson );
+            Object dataApplication = ApplicationDataCacheService.getInstance( ).getApplicationDataTree( application );
             if ( dataApplication != null )
             {
                 strApplicationJson = _mapper.writerWithDefaultPrettyPrinter( ).writeValueAsString( dataApplication );
@@ -217,7 +345,42 @@ public class ApplicationService
      */
     static <T> T getDataSubset( String strApplicationJson, String strDataSubsetName, Class<T> valueType ) throws IOException
     {
-        JsonNode nodeApplication = _mapper.readTree( strApplicationJson );
+        return getDataSubset( _mapper.readTree( strApplicationJson ), strDataSubsetName, valueType );
+    }
+
+    /**
+     * Load a datasubset from the cached JSON tree of the subsets of an application
+     * 
+     * @param <T>
+     *            The datasubset type
+     * @param application
+     *            The application
+     * @param strDataSubsetName
+     *            The subset name
+     * @param valueType
+     *            The class of the data subset
+     * @return The data subset as an object
+     */
+    private static <T> T getDataSubset( Application application, String strDataSubsetName, Class<T> valueType ) throws IOException
+    {
+        return getDataSubset( ApplicationDataCacheService.getInstance( ).getApplicationDataTree( application ), strDataSubsetName, valueType );
+    }
+
+    /**
+     * Load a datasubset from a JSON tree
+     * 
+     * @param <T>
+     *            The datasubset type
+     * @param nodeApplication
+     *            The JSON tree of the application
+     * @param strDataSubsetName
+     *            The subset name
+     * @param valueType
+     *            The class of the data subset
+     * @return The data subset as an object
+     */
+    private static <T> T getDataSubset( JsonNode nodeApplication, String strDataSubsetName, Class<T> valueType ) throws IOException
+    {
         JsonNode nodeData = nodeApplication.get( strDataSubsetName );
         if ( nodeData != null )
         {
@@ -278,24 +441,28 @@ public class ApplicationService
     }
 
     /**
-     * Remove the application whose identifier is specified in parameter with its dependencies
+     * Remove the application whose identifier is specified in parameter with its dependencies, in a single transaction
      * 
      * @param nId
      *            The application Id
      */
     public static void remove( int nId )
     {
-        List<Demand> demandList = DemandHome.getDemandsListByApplication( nId );
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            DemandWorkflowService.removeWorkflowResources( DemandHome.getIdDemandTypesByApplication( nId ) );
+            DemandHome.removeByApplication( nId );
+            ApplicationHome.remove( nId );
 
-        for ( Demand demand : demandList )
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( Exception e )
         {
-            List<Integer> idResourceList = new ArrayList<Integer>( );
-            idResourceList.add( demand.getId( ) );
-            int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
-            WorkflowService.getInstance( ).doRemoveWorkFlowResourceByListId( idResourceList, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow );
-            DemandHome.remove( demand.getId( ) );
+            TransactionManager.rollBack( plugin, e );
+            throw new AppException( "Unable to remove the application " + nId, e );
         }
-
-        ApplicationHome.remove( nId );
+        ApplicationDataCacheService.getInstance( ).invalidate( nId );
     }
 }
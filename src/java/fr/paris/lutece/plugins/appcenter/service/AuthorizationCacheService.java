@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.PermissionRole;
+import fr.paris.lutece.plugins.appcenter.business.PermissionRoleHome;
+import fr.paris.lutece.plugins.appcenter.business.RoleHome;
+import fr.paris.lutece.plugins.appcenter.business.UserApplicationRole;
+import fr.paris.lutece.plugins.appcenter.business.UserApplicationRoleHome;
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Cache of the authorization snapshots used by the AuthorizationService : the role of each user per application and the resources granted to each role
+ * per permission
+ */
+public final class AuthorizationCacheService extends AbstractCacheableService
+{
+    private static final String CACHE_NAME = "appcenter.authorizationCacheService";
+    private static final String KEY_USER_PREFIX = "user-";
+    private static final String KEY_ROLE_PERMISSIONS = "role-permissions";
+
+    private static AuthorizationCacheService _singleton;
+
+    /**
+     * Private constructor
+     */
+    private AuthorizationCacheService( )
+    {
+    }
+
+    /**
+     * Get the unique instance of the service
+     * 
+     * @return the instance
+     */
+    public static synchronized AuthorizationCacheService getInstance( )
+    {
+        if ( _singleton == null )
+        {
+            _singleton = new AuthorizationCacheService( );
+            _singleton.initCache( );
+        }
+
+        return _singleton;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName( )
+    {
+        return CACHE_NAME;
+    }
+
+    /**
+     * Get the ids of the roles of a user for each application, in ascending order. The global roles of the user are under the application id
+     * RoleHome.GLOBAL_PERMISSION_WILDCARD_ID
+     * 
+     * @param strIdUser
+     *            the id of the user
+     * @return the map of the ids of the roles by id application
+     */
+    @SuppressWarnings( "unchecked" )
+    public Map<Integer, SortedSet<Integer>> getUserRoles( String strIdUser )
+    {
+        String strKey = KEY_USER_PREFIX + strIdUser;
+
+        Map<Integer, SortedSet<Integer>> mapUserRoles = (Map<Integer, SortedSet<Integer>>) getFromCache( strKey );
+        if ( mapUserRoles == null )
+        {
+            mapUserRoles = new HashMap<>( );
+            for ( UserApplicationRole userApplicationRole : UserApplicationRoleHome.getUserApplicationRolesListByIdUser( strIdUser ) )
+            {
+                mapUserRoles.computeIfAbsent( userApplicationRole.getIdApplication( ), id -> new TreeSet<>( ) ).add( userApplicationRole.getIdRole( ) );
+            }
+            mapUserRoles.replaceAll( ( id, setRoles ) -> Collections.unmodifiableSortedSet( setRoles ) );
+            mapUserRoles = Collections.unmodifiableMap( mapUserRoles );
+            putInCache( strKey, mapUserRoles );
+        }
+
+        return mapUserRoles;
+    }
+
+    /**
+     * Get the codes of the resources granted to each existing role, by permission code
+     * 
+     * @return the map of the resources by permission code, by id role
+     */
+    @SuppressWarnings( "unchecked" )
+    public Map<Integer, Map<String, Set<String>>> getRolePermissions( )
+    {
+        Map<Integer, Map<String, Set<String>>> mapRolePermissions = (Map<Integer, Map<String, Set<String>>>) getFromCache( KEY_ROLE_PERMISSIONS );
+        if ( mapRolePermissions == null )
+        {
+            mapRolePermissions = new HashMap<>( );
+            for ( Integer nIdRole : RoleHome.getIdRolesList( ) )
+            {
+                mapRolePermissions.put( nIdRole, new HashMap<>( ) );
+            }
+            for ( PermissionRole permissionRole : PermissionRoleHome.getPermissionRolesList( ) )
+            {
+                Map<String, Set<String>> mapPermissions = mapRolePermissions.get( permissionRole.getIdRole( ) );
+                if ( mapPermissions != null )
+                {
+                    mapPermissions.computeIfAbsent( permissionRole.getCodePermission( ), code -> new HashSet<>( ) ).add( permissionRole.getCodeResource( ) );
+                }
+            }
+            mapRolePermissions = Collections.unmodifiableMap( mapRolePermissions );
+            putInCache( KEY_ROLE_PERMISSIONS, mapRolePermissions );
+        }
+
+        return mapRolePermissions;
+    }
+
+    /**
+     * Remove the roles of a user from the cache
+     * 
+     * @param strIdUser
+     *            the id of the user
+     */
+    public void invalidateUser( String strIdUser )
+    {
+        removeKey( KEY_USER_PREFIX + strIdUser );
+    }
+
+    /**
+     * Remove the permissions of the roles from the cache, with the category actions filtered by these permissions
+     */
+    public void invalidateRolePermissions( )
+    {
+        removeKey( KEY_ROLE_PERMISSIONS );
+        CategoryActionCacheService.getInstance( ).resetCache( );
+    }
+}
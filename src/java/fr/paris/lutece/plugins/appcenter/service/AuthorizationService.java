@@ -33,53 +33,111 @@
  */
 package fr.paris.lutece.plugins.appcenter.service;
 
-import fr.paris.lutece.plugins.appcenter.business.PermissionRole;
-import fr.paris.lutece.plugins.appcenter.business.PermissionRoleHome;
-import fr.paris.lutece.plugins.appcenter.business.Role;
 import fr.paris.lutece.plugins.appcenter.business.RoleHome;
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
 
 /**
  * AuthorizationService
  */
 public class AuthorizationService
 {
+    private static final String WILDCARD_RESOURCE = "*";
+
     public static boolean isAuthorized( String strIdUser, int idApplication, String strPermissionCode, String strResource )
     {
+        return isAuthorizedRole( getIdRole( strIdUser, idApplication ), strPermissionCode, strResource );
+    }
 
+    /**
+     * Get the role deciding the permissions of a user on an application : his global role or else his role on the application. When the user has
+     * several existing roles there, the role with the lowest id decides, as in ApplicationHome.getApplicationsByUser
+     * 
+     * @param strIdUser
+     *            the id of the user
+     * @param idApplication
+     *            the id of the application
+     * @return the id of the role or null if the user has no role on the application
+     */
+    public static Integer getIdRole( String strIdUser, int idApplication )
+    {
         if ( strIdUser != null )
         {
+            AuthorizationCacheService cacheService = AuthorizationCacheService.getInstance( );
+            Map<Integer, Map<String, Set<String>>> mapRolePermissions = cacheService.getRolePermissions( );
+            Map<Integer, SortedSet<Integer>> mapUserRoles = cacheService.getUserRoles( strIdUser );
+
             // check global roles
-            Role role = RoleHome.findGlobalRoleByUserId( strIdUser );
+            Integer nIdRole = getFirstExistingRole( mapUserRoles.get( RoleHome.GLOBAL_PERMISSION_WILDCARD_ID ), mapRolePermissions );
 
-            if ( role == null )
+            if ( nIdRole == null )
             {
-                // check application role
-                role = RoleHome.findByUserIdAndApplicationId( strIdUser, idApplication );
+                // check application roles
+                nIdRole = getFirstExistingRole( mapUserRoles.get( idApplication ), mapRolePermissions );
             }
 
-            if ( role != null )
-            {
-                List<PermissionRole> listPermissionRole = PermissionRoleHome.getPermissionRolesListByCodeAndIdRole( strPermissionCode, role.getId( ) );
+            return nIdRole;
+        }
 
-                if ( !listPermissionRole.isEmpty( ) && strResource != null )
+        return null;
+    }
+
+    /**
+     * Get the lowest id of the roles which still exist
+     * 
+     * @param setIdRoles
+     *            the ids of the roles in ascending order, may be null
+     * @param mapRolePermissions
+     *            the permissions of the existing roles
+     * @return the id of the role, or null if none of the roles exists
+     */
+    private static Integer getFirstExistingRole( SortedSet<Integer> setIdRoles, Map<Integer, Map<String, Set<String>>> mapRolePermissions )
+    {
+        if ( setIdRoles != null )
+        {
+            for ( Integer nIdRole : setIdRoles )
+            {
+                if ( mapRolePermissions.containsKey( nIdRole ) )
                 {
-                    for ( PermissionRole permissionRole : listPermissionRole )
-                    {
-                        if ( permissionRole.getCodeResource( ).equals( "*" ) || permissionRole.getCodeResource( ).equals( strResource ) )
-                        {
-                            return true;
-                        }
-                    }
+                    return nIdRole;
                 }
-                else
-                    if ( !listPermissionRole.isEmpty( ) )
-                    {
-                        return true;
-                    }
             }
         }
 
+        return null;
+    }
+
+    /**
+     * Check if a role has a permission on a resource
+     * 
+     * @param nIdRole
+     *            the id of the role, may be null
+     * @param strPermissionCode
+     *            the permission code
+     * @param strResource
+     *            the resource code, or null to check the permission on any resource
+     * @return true if the role has the permission
+     */
+    public static boolean isAuthorizedRole( Integer nIdRole, String strPermissionCode, String strResource )
+    {
+        Map<String, Set<String>> mapPermissions = AuthorizationCacheService.getInstance( ).getRolePermissions( ).get( nIdRole );
+
+        if ( mapPermissions != null )
+        {
+            Set<String> setResources = mapPermissions.get( strPermissionCode );
+
+            if ( setResources != null && strResource != null )
+            {
+                return setResources.contains( WILDCARD_RESOURCE ) || setResources.contains( strResource );
+            }
+            else
+                if ( setResources != null )
+                {
+                    return true;
+                }
+        }
+
         return false;
     }
 }
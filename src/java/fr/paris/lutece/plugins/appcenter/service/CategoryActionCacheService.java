@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.CategoryAction;
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cache of the category action trees filtered for a role and an application resource type configuration
+ */
+public final class CategoryActionCacheService extends AbstractCacheableService
+{
+    private static final String CACHE_NAME = "appcenter.categoryActionCacheService";
+    private static final String KEY_PREFIX = "role-";
+    private static final String KEY_NO_ROLE = "none";
+    private static final String KEY_SEPARATOR = "-";
+
+    private static CategoryActionCacheService _singleton;
+
+    /**
+     * Private constructor
+     */
+    private CategoryActionCacheService( )
+    {
+    }
+
+    /**
+     * Get the unique instance of the service
+     * 
+     * @return the instance
+     */
+    public static synchronized CategoryActionCacheService getInstance( )
+    {
+        if ( _singleton == null )
+        {
+            _singleton = new CategoryActionCacheService( );
+            _singleton.initCache( );
+        }
+
+        return _singleton;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName( )
+    {
+        return CACHE_NAME;
+    }
+
+    /**
+     * Get the category actions authorized to a role. The returned list is shared and must not be modified
+     * 
+     * @param nIdRole
+     *            the id of the role, may be null
+     * @param resourceTypeConfig
+     *            the resource type configuration of the application
+     * @return the list of the categories with their authorized actions
+     */
+    @SuppressWarnings( "unchecked" )
+    public List<CategoryAction> getCategoryActionsList( Integer nIdRole, ResourceTypeConfig resourceTypeConfig )
+    {
+        String strKey = getCacheKey( nIdRole, resourceTypeConfig );
+
+        List<CategoryAction> listCategories = (List<CategoryAction>) getFromCache( strKey );
+        if ( listCategories == null )
+        {
+            listCategories = ActionService.getCategoryActionsListOfRole( nIdRole, resourceTypeConfig );
+            putInCache( strKey, listCategories );
+        }
+
+        return listCategories;
+    }
+
+    /**
+     * Build the cache key of a role and a resource type configuration
+     * 
+     * @param nIdRole
+     *            the id of the role, may be null
+     * @param resourceTypeConfig
+     *            the resource type configuration
+     * @return the key
+     */
+    private static String getCacheKey( Integer nIdRole, ResourceTypeConfig resourceTypeConfig )
+    {
+        StringBuilder sbKey = new StringBuilder( KEY_PREFIX );
+        sbKey.append( ( nIdRole != null ) ? nIdRole.toString( ) : KEY_NO_ROLE );
+
+        // Sorted so that the same configuration always gives the same key
+        for ( Map.Entry<String, String> resourceType : new TreeMap<>( resourceTypeConfig.getMapResourceType( ) ).entrySet( ) )
+        {
+            sbKey.append( KEY_SEPARATOR ).append( resourceType.getKey( ) ).append( '=' ).append( resourceType.getValue( ) );
+        }
+
+        return sbKey.toString( );
+    }
+}
@@ -43,8 +43,11 @@ import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandFilter;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
 import fr.paris.lutece.plugins.appcenter.web.DemandJspBean;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.workflow.WorkflowService;
+import fr.paris.lutece.util.sql.TransactionManager;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -65,17 +68,41 @@ public class DemandService
 
     private static ObjectMapper _mapper = new ObjectMapper( );
 
+    /**
+     * Create a demand and run its workflow initial state and automatic actions. All is done in a single transaction : if any step fails, the demand and
+     * the workflow resources are rolled back and an AppException is thrown
+     * 
+     * @param demand
+     *            The demand
+     * @param application
+     *            The application of the demand
+     */
     public static void saveDemand( Demand demand, Application application )
     {
-        demand.setCreationDate( new java.sql.Timestamp( ( new java.util.Date( ) ).getTime( ) ) );
-        demand.setDemandData( getDemandAsString( demand ) );
-        DemandHome.create( demand );
-        // Run the workflow
-        int nIdResource = demand.getId( );
-        int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
-        WorkflowService.getInstance( ).getState( nIdResource, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
-        WorkflowService.getInstance( ).executeActionAutomatic( nIdResource, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
-
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            demand.setCreationDate( new java.sql.Timestamp( ( new java.util.Date( ) ).getTime( ) ) );
+            demand.setDemandData( getDemandAsString( demand ) );
+            DemandHome.create( demand );
+            // Run the workflow
+            int nIdResource = demand.getId( );
+            int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
+            WorkflowService.getInstance( ).getState( nIdResource, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
+            WorkflowService.getInstance( ).executeActionAutomatic( nIdResource, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
+
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            // The automatic actions may have modified the application data
+            ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
+            throw new AppException( "Unable to save the demand of type " + demand.getDemandType( ) + " for the application " + application.getId( ), e );
+        }
+        // The data cached while the transaction was running may be the one from before the commit
+        ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
     }
 
     public static <T extends Demand> List<T> getDemandsListByApplicationAndType( Application application, String strDemandType, Class<T> demandClass )
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.Demand;
+import fr.paris.lutece.plugins.appcenter.business.DemandType;
+import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory registry of the demand types, indexed by id_demand_type. It is loaded on first use and invalidated by DemandTypeHome on each modification
+ */
+public final class DemandTypeRegistry
+{
+    private static final int ID_WORKFLOW_NONE = -1;
+
+    // Incremented on each invalidation : a snapshot loaded for an older generation is stale
+    private static final AtomicLong _generation = new AtomicLong( );
+    private static volatile Snapshot _snapshot;
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private DemandTypeRegistry( )
+    {
+    }
+
+    /**
+     * Get a demand type
+     * 
+     * @param strIdDemandType
+     *            the id_demand_type key
+     * @return the demand type, or null if there is no demand type with this key
+     */
+    public static DemandType getDemandType( String strIdDemandType )
+    {
+        return getSnapshot( )._mapDemandTypes.get( strIdDemandType );
+    }
+
+    /**
+     * Get the demand class of a demand type
+     * 
+     * @param strIdDemandType
+     *            the id_demand_type key
+     * @return the class, or null if the demand type or its class is not found
+     */
+    public static Class<? extends Demand> getDemandClass( String strIdDemandType )
+    {
+        return getSnapshot( )._mapDemandClasses.get( strIdDemandType );
+    }
+
+    /**
+     * Get the workflow id of a demand type
+     * 
+     * @param strIdDemandType
+     *            the id_demand_type key
+     * @return the workflow id, or -1 if the demand type is not found
+     */
+    public static int getIdWorkflow( String strIdDemandType )
+    {
+        DemandType demandType = getDemandType( strIdDemandType );
+
+        return ( demandType != null ) ? demandType.getIdWorkflow( ) : ID_WORKFLOW_NONE;
+    }
+
+    /**
+     * Get all the demand types
+     * 
+     * @return the list of the demand types
+     */
+    public static List<DemandType> getDemandTypesList( )
+    {
+        return new ArrayList<>( getSnapshot( )._mapDemandTypes.values( ) );
+    }
+
+    /**
+     * Invalidate the registry, it will be reloaded on next use
+     */
+    public static void invalidate( )
+    {
+        _generation.incrementAndGet( );
+    }
+
+    /**
+     * Get the current snapshot of the registry, loading it if needed. A snapshot whose loading was still running when the registry was invalidated is
+     * loaded again on next use
+     * 
+     * @return the snapshot
+     */
+    private static Snapshot getSnapshot( )
+    {
+        Snapshot snapshot = _snapshot;
+        if ( snapshot == null || snapshot._lGeneration != _generation.get( ) )
+        {
+            synchronized( DemandTypeRegistry.class )
+            {
+                snapshot = _snapshot;
+                long lGeneration = _generation.get( );
+                if ( snapshot == null || snapshot._lGeneration != lGeneration )
+                {
+                    snapshot = new Snapshot( lGeneration, DemandTypeHome.getDemandTypesList( ) );
+                    _snapshot = snapshot;
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Immutable state of the registry
+     */
+    private static final class Snapshot
+    {
+        private final long _lGeneration;
+        private final Map<String, DemandType> _mapDemandTypes;
+        private final Map<String, Class<? extends Demand>> _mapDemandClasses;
+
+        /**
+         * Constructor
+         * 
+         * @param lGeneration
+         *            the generation of the registry when the loading started
+         * @param listDemandTypes
+         *            the demand types
+         */
+        Snapshot( long lGeneration, List<DemandType> listDemandTypes )
+        {
+            _lGeneration = lGeneration;
+            Map<String, DemandType> mapDemandTypes = new LinkedHashMap<>( );
+            Map<String, Class<? extends Demand>> mapDemandClasses = new LinkedHashMap<>( );
+
+            for ( DemandType demandType : listDemandTypes )
+            {
+                mapDemandTypes.put( demandType.getIdDemandType( ), demandType );
+                try
+                {
+                    mapDemandClasses.put( demandType.getIdDemandType( ), Class.forName( demandType.getJavaClass( ) ).asSubclass( Demand.class ) );
+                }
+                catch( ClassNotFoundException | ClassCastException e )
+                {
+                    AppLogService.error( "Unable to find class of demand type " + demandType.getIdDemandType( ), e );
+                }
+            }
+
+            _mapDemandTypes = Collections.unmodifiableMap( mapDemandTypes );
+            _mapDemandClasses = Collections.unmodifiableMap( mapDemandClasses );
+        }
+    }
+}
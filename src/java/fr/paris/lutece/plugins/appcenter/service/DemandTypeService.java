@@ -34,15 +34,18 @@
 package fr.paris.lutece.plugins.appcenter.service;
 
 import fr.paris.lutece.plugins.appcenter.business.Demand;
+import fr.paris.lutece.plugins.appcenter.business.DemandFilter;
 import fr.paris.lutece.plugins.appcenter.business.DemandType;
 import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
 import fr.paris.lutece.portal.business.user.AdminUser;
 import fr.paris.lutece.portal.service.rbac.RBACService;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.util.ReferenceList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class DemandTypeService
 {
@@ -51,7 +54,7 @@ public class DemandTypeService
 
     public static int getIdWorkflow( String strDemandTypeKey )
     {
-        return DemandTypeHome.findByIdDemandType( strDemandTypeKey ).getIdWorkflow( );
+        return DemandTypeRegistry.getIdWorkflow( strDemandTypeKey );
     }
 
     public static String getWorkflowResourceType( String strDemandTypeKey )
@@ -59,6 +62,18 @@ public class DemandTypeService
         return Demand.WORKFLOW_RESOURCE_TYPE;
     }
 
+    /**
+     * Get the demand class of a demand type
+     * 
+     * @param strDemandTypeId
+     *            the id_demand_type key
+     * @return the class, or null if the demand type or its class is not found
+     */
+    public static Class<? extends Demand> getClassByDemandTypeId( String strDemandTypeId )
+    {
+        return DemandTypeRegistry.getDemandClass( strDemandTypeId );
+    }
+
     public static Class getClassByDemandTypeId( String strDemandTypeId, List<DemandType> listDemandType )
     {
         Optional<DemandType> filteredDemandType = listDemandType.stream( ).filter( demandType -> demandType.getIdDemandType( ).equals( strDemandTypeId ) )
@@ -121,4 +136,36 @@ public class DemandTypeService
 
     }
 
+    /**
+     * Filter the demand type reference list with RBAC authorizations
+     * 
+     * @param demandTypeRefList
+     * @param user
+     */
+    public static void filterWithRBAC( ReferenceList demandTypeRefList, AdminUser user )
+    {
+        filterWithRBAC( new ArrayList<>( ), demandTypeRefList, user );
+    }
+
+    /**
+     * Restrict the demand filter to the demand types the user is authorized to view with RBAC
+     * 
+     * @param filter
+     * @param user
+     */
+    public static void addRBACFilter( DemandFilter filter, AdminUser user )
+    {
+        if ( RBACService.isUserInRole( user, KEY_SUPER_ADMIN_ROLE ) )
+        {
+            filter.setHasAuthorizedIdDemandType( false );
+            return;
+        }
+
+        Collection<DemandType> listAuthorizedDemandType = RBACService.getAuthorizedCollection( DemandTypeHome.getDemandTypesList( ),
+                DemandTypeIdService.DEMAND_TYPE_PERMISSION_VIEW, user );
+
+        filter.setListAuthorizedIdDemandType( listAuthorizedDemandType.stream( ).map( DemandType::getIdDemandType ).collect( Collectors.toList( ) ) );
+        filter.setHasAuthorizedIdDemandType( true );
+    }
+
 }
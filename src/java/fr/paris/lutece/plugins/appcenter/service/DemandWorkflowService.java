@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service;
+
+import fr.paris.lutece.plugins.appcenter.business.Demand;
+import fr.paris.lutece.plugins.appcenter.business.DemandHome;
+import fr.paris.lutece.plugins.appcenter.business.DemandSummary;
+import fr.paris.lutece.plugins.appcenter.business.DemandType;
+import fr.paris.lutece.plugins.workflowcore.business.action.Action;
+import fr.paris.lutece.plugins.workflowcore.business.state.State;
+import fr.paris.lutece.portal.business.user.AdminUser;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.workflow.WorkflowService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Service which resolves the workflow informations of a list of demands with one query by workflow instead of one query by demand
+ */
+public final class DemandWorkflowService
+{
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private DemandWorkflowService( )
+    {
+    }
+
+    /**
+     * Get the workflow states of a list of demands
+     * 
+     * @param listDemands
+     *            the list of demands
+     * @return the map of the states by id of demand
+     */
+    public static Map<Integer, State> getStates( List<? extends Demand> listDemands )
+    {
+        return getStatesByWorkflow( getIdDemandsByWorkflow( listDemands, Demand::getId, Demand::getIdDemandType ) );
+    }
+
+    /**
+     * Get the workflow states of a list of demand summaries
+     * 
+     * @param listDemandSummaries
+     *            the list of demand summaries
+     * @return the map of the states by id of demand
+     */
+    public static Map<Integer, State> getSummariesStates( List<DemandSummary> listDemandSummaries )
+    {
+        return getStatesByWorkflow( getIdDemandsByWorkflow( listDemandSummaries, DemandSummary::getId, DemandSummary::getIdDemandType ) );
+    }
+
+    /**
+     * Get the workflow actions of a list of demands available for a user
+     * 
+     * @param listDemands
+     *            the list of demands
+     * @param user
+     *            the admin user
+     * @return the map of the actions by id of demand
+     */
+    public static Map<Integer, List<Action>> getActions( List<? extends Demand> listDemands, AdminUser user )
+    {
+        return getActionsByWorkflow( getIdDemandsByWorkflow( listDemands, Demand::getId, Demand::getIdDemandType ), user );
+    }
+
+    /**
+     * Get the workflow actions of a list of demand summaries available for a user
+     * 
+     * @param listDemandSummaries
+     *            the list of demand summaries
+     * @param user
+     *            the admin user
+     * @return the map of the actions by id of demand
+     */
+    public static Map<Integer, List<Action>> getSummariesActions( List<DemandSummary> listDemandSummaries, AdminUser user )
+    {
+        return getActionsByWorkflow( getIdDemandsByWorkflow( listDemandSummaries, DemandSummary::getId, DemandSummary::getIdDemandType ), user );
+    }
+
+    /**
+     * Remove the workflow resources of demands, with one call by workflow. The workflow of a demand whose type is not registered is read from its workflow
+     * resources
+     * 
+     * @param mapIdDemandTypes
+     *            the map of the id of the demand types by id of demand
+     */
+    public static void removeWorkflowResources( Map<Integer, String> mapIdDemandTypes )
+    {
+        Map<Integer, List<Integer>> mapIdDemandsByWorkflow = getIdDemandsByWorkflow( new ArrayList<>( mapIdDemandTypes.entrySet( ) ), Map.Entry::getKey,
+                Map.Entry::getValue );
+
+        List<Integer> listIdDemandsUnknownType = new ArrayList<>( );
+        for ( Map.Entry<Integer, String> entry : mapIdDemandTypes.entrySet( ) )
+        {
+            if ( DemandTypeRegistry.getDemandType( entry.getValue( ) ) == null )
+            {
+                AppLogService.info( "The demand " + entry.getKey( ) + " has the unknown demand type " + entry.getValue( ) );
+                listIdDemandsUnknownType.add( entry.getKey( ) );
+            }
+        }
+
+        for ( Map.Entry<Integer, List<Integer>> entry : DemandHome.getIdDemandsByWorkflow( listIdDemandsUnknownType ).entrySet( ) )
+        {
+            mapIdDemandsByWorkflow.computeIfAbsent( entry.getKey( ), k -> new ArrayList<>( ) ).addAll( entry.getValue( ) );
+        }
+
+        for ( Map.Entry<Integer, List<Integer>> entry : mapIdDemandsByWorkflow.entrySet( ) )
+        {
+            WorkflowService.getInstance( ).doRemoveWorkFlowResourceByListId( entry.getValue( ), Demand.WORKFLOW_RESOURCE_TYPE, entry.getKey( ) );
+        }
+    }
+
+    /**
+     * Get the workflow states of demands grouped by workflow
+     * 
+     * @param mapIdDemandsByWorkflow
+     *            the map of the ids of demand by id of workflow
+     * @return the map of the states by id of demand
+     */
+    private static Map<Integer, State> getStatesByWorkflow( Map<Integer, List<Integer>> mapIdDemandsByWorkflow )
+    {
+        Map<Integer, State> mapStates = new HashMap<>( );
+
+        for ( Map.Entry<Integer, List<Integer>> entry : mapIdDemandsByWorkflow.entrySet( ) )
+        {
+            int nIdWorkflow = entry.getKey( );
+            Map<Integer, State> mapWorkflowStates = DemandHome.getStatesByIdDemands( entry.getValue( ), nIdWorkflow );
+
+            for ( Integer nIdDemand : entry.getValue( ) )
+            {
+                State state = mapWorkflowStates.get( nIdDemand );
+                if ( state == null )
+                {
+                    // The resource is not in the workflow yet : the workflow service initializes it
+                    state = WorkflowService.getInstance( ).getState( nIdDemand, Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
+                }
+                mapStates.put( nIdDemand, state );
+            }
+        }
+
+        return mapStates;
+    }
+
+    /**
+     * Get the workflow actions of demands grouped by workflow
+     * 
+     * @param mapIdDemandsByWorkflow
+     *            the map of the ids of demand by id of workflow
+     * @param user
+     *            the admin user
+     * @return the map of the actions by id of demand
+     */
+    private static Map<Integer, List<Action>> getActionsByWorkflow( Map<Integer, List<Integer>> mapIdDemandsByWorkflow, AdminUser user )
+    {
+        Map<Integer, List<Action>> mapActions = new HashMap<>( );
+
+        for ( Map.Entry<Integer, List<Integer>> entry : mapIdDemandsByWorkflow.entrySet( ) )
+        {
+            mapActions.putAll( WorkflowService.getInstance( ).getActions( entry.getValue( ), Demand.WORKFLOW_RESOURCE_TYPE, null, entry.getKey( ), user ) );
+        }
+
+        return mapActions;
+    }
+
+    /**
+     * Group the ids of a list of demands by workflow
+     * 
+     * @param listDemands
+     *            the list of demands
+     * @param idGetter
+     *            the getter of the id of a demand
+     * @param idDemandTypeGetter
+     *            the getter of the id_demand_type of a demand
+     * @return the map of the ids of demand by id of workflow
+     */
+    private static <T> Map<Integer, List<Integer>> getIdDemandsByWorkflow( List<? extends T> listDemands, ToIntFunction<T> idGetter,
+            Function<T, String> idDemandTypeGetter )
+    {
+        Map<Integer, List<Integer>> mapIdDemands = new HashMap<>( );
+        for ( T demand : listDemands )
+        {
+            DemandType demandType = DemandTypeRegistry.getDemandType( idDemandTypeGetter.apply( demand ) );
+            if ( demandType != null )
+            {
+                mapIdDemands.computeIfAbsent( demandType.getIdWorkflow( ), k -> new ArrayList<>( ) ).add( idGetter.applyAsInt( demand ) );
+            }
+        }
+
+        return mapIdDemands;
+    }
+}
@@ -42,9 +42,15 @@ import fr.paris.lutece.plugins.appcenter.business.Permission;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class PermissionService
 {
+    // Index of the permissions by code, built on first use and dropped on each Spring context refresh
+    private static volatile Map<String, Permission> _mapPermissions;
+
     /**
      * Get the permission list
      * 
@@ -52,12 +58,7 @@ public class PermissionService
      */
     public static Collection<Permission> getPermissionList( )
     {
-        Collection<Permission> colPermissions = new ArrayList<>( );
-        for ( IPermissionProvider permissionProvider : SpringContextService.getBeansOfType( IPermissionProvider.class ) )
-        {
-            colPermissions.addAll( permissionProvider.providePermissionList( ) );
-        }
-        return colPermissions;
+        return new ArrayList<>( getPermissionsMap( ).values( ) );
     }
 
     /**
@@ -68,13 +69,39 @@ public class PermissionService
      */
     public static Permission getPermissionByCode( String strPermissionCode )
     {
-        for ( Permission permission : getPermissionList( ) )
+        return getPermissionsMap( ).get( strPermissionCode );
+    }
+
+    /**
+     * Drop the index of the permissions so that it is rebuilt from the permission providers on next use
+     */
+    public static void resetPermissionsIndex( )
+    {
+        _mapPermissions = null;
+    }
+
+    /**
+     * Get the index of the permissions by code, building it from the permission providers if needed
+     * 
+     * @return the map of the permissions by code
+     */
+    private static Map<String, Permission> getPermissionsMap( )
+    {
+        Map<String, Permission> mapPermissions = _mapPermissions;
+        if ( mapPermissions == null )
         {
-            if ( permission.getCode( ).equals( strPermissionCode ) )
+            mapPermissions = new LinkedHashMap<>( );
+            for ( IPermissionProvider permissionProvider : SpringContextService.getBeansOfType( IPermissionProvider.class ) )
             {
-                return permission;
+                for ( Permission permission : permissionProvider.providePermissionList( ) )
+                {
+                    // The first provider declaring a code wins, as with the former linear lookup
+                    mapPermissions.putIfAbsent( permission.getCode( ), permission );
+                }
             }
+            mapPermissions = Collections.unmodifiableMap( mapPermissions );
+            _mapPermissions = mapPermissions;
         }
-        return null;
+        return mapPermissions;
     }
 }
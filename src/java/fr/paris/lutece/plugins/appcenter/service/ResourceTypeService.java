@@ -40,10 +40,16 @@ package fr.paris.lutece.plugins.appcenter.service;
 
 import fr.paris.lutece.plugins.appcenter.business.resourcetype.IAppCenterResourceType;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ResourceTypeService
 {
+    // Index of the resource types by key, built on first use and dropped on each Spring context refresh
+    private static volatile Map<String, IAppCenterResourceType> _mapResourceTypes;
+
     /**
      * Get the resource type list
      * 
@@ -62,13 +68,35 @@ public class ResourceTypeService
      */
     public static IAppCenterResourceType getResourceType( String strResourceTypeCode )
     {
-        for ( IAppCenterResourceType resourceType : getResourceTypeList( ) )
+        return getResourceTypesMap( ).get( strResourceTypeCode );
+    }
+
+    /**
+     * Drop the index of the resource types so that it is rebuilt from the Spring context on next use
+     */
+    public static void resetResourceTypesIndex( )
+    {
+        _mapResourceTypes = null;
+    }
+
+    /**
+     * Get the index of the resource types by key, building it from the Spring context if needed
+     * 
+     * @return the map of the resource types by key
+     */
+    private static Map<String, IAppCenterResourceType> getResourceTypesMap( )
+    {
+        Map<String, IAppCenterResourceType> mapResourceTypes = _mapResourceTypes;
+        if ( mapResourceTypes == null )
         {
-            if ( strResourceTypeCode.equals( resourceType.getRessourceTypeKey( ) ) )
+            mapResourceTypes = new LinkedHashMap<>( );
+            for ( IAppCenterResourceType resourceType : getResourceTypeList( ) )
             {
-                return resourceType;
+                mapResourceTypes.putIfAbsent( resourceType.getRessourceTypeKey( ), resourceType );
             }
+            mapResourceTypes = Collections.unmodifiableMap( mapResourceTypes );
+            _mapResourceTypes = mapResourceTypes;
         }
-        return null;
+        return mapResourceTypes;
     }
 }
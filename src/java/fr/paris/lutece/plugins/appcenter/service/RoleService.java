@@ -49,8 +49,17 @@ public class RoleService
 
     public static Role getAppOwnerRole( )
     {
-        String strIdOwnerRole = AppPropertiesService.getProperty( PROPERTY_ID_APP_ROLE_OWNER, "app_owner" );
-        Role ownerRole = RoleHome.findByCode( strIdOwnerRole );
+        Role ownerRole = RoleHome.findByCode( getAppOwnerRoleCode( ) );
         return ownerRole;
     }
+
+    /**
+     * Get the code of the role of the owners of the applications
+     * 
+     * @return the code of the role
+     */
+    public static String getAppOwnerRoleCode( )
+    {
+        return AppPropertiesService.getProperty( PROPERTY_ID_APP_ROLE_OWNER, "app_owner" );
+    }
 }
@@ -117,6 +117,12 @@ public class UserService
      */
     public static User getCurrentUser( HttpServletRequest request ) throws UserNotSignedException
     {
+        AppCenterRequestContext context = AppCenterRequestContext.getInstance( request );
+        if ( context.getCurrentUser( ) != null )
+        {
+            return context.getCurrentUser( );
+        }
+
         User user = new User( );
 
         if ( SecurityService.isAuthenticationEnable( ) )
@@ -147,6 +153,7 @@ public class UserService
                 user.setListUserApplicationRoles( UserApplicationRoleHome.getUserApplicationRolesListByIdUser( user.getId( ) ) );
             }
         }
+        context.setCurrentUser( user );
         return user;
 
     }
@@ -193,14 +200,31 @@ public class UserService
      */
     public static User getCurrentUserInAppContext( HttpServletRequest request, int nIdApplication ) throws UserNotSignedException
     {
-        User user = getCurrentUser( request );
-        if ( user.getListUserApplicationRoles( ) != null )
+        AppCenterRequestContext context = AppCenterRequestContext.getInstance( request );
+        User user = context.getUserInAppContext( nIdApplication );
+        if ( user != null )
+        {
+            return user;
+        }
+
+        User currentUser = getCurrentUser( request );
+        if ( currentUser == null )
+        {
+            return null;
+        }
+
+        // The current user is shared by the whole request : the roles are filtered on a copy
+        user = new User( );
+        user.setId( currentUser.getId( ) );
+        user.setUserInfos( currentUser.getUserInfos( ) );
+        if ( currentUser.getListUserApplicationRoles( ) != null )
         {
             // Do a Home method instead
-            user.setListUserApplicationRoles( user.getListUserApplicationRoles( ).stream( )
+            user.setListUserApplicationRoles( currentUser.getListUserApplicationRoles( ).stream( )
                     .filter( userApplicationRole -> userApplicationRole.getIdApplication( ) == nIdApplication ).collect( Collectors.toList( ) ) );
 
         }
+        context.putUserInAppContext( nIdApplication, user );
         return user;
     }
 
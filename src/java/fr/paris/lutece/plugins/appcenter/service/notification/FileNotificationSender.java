@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service.notification;
+
+import fr.paris.lutece.plugins.appcenter.business.notification.Notification;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+
+/**
+ * Notification sender that writes each notification as a mail file in a directory instead of sending it. It stands in for the SMTP server in
+ * development and test environments
+ */
+public class FileNotificationSender implements INotificationSender
+{
+    private static final String FILE_PREFIX = "notification_";
+    private static final String FILE_EXTENSION = ".eml";
+    private static final String CRLF = "\r\n";
+
+    private String _strDirectory;
+
+    /**
+     * Sets the directory where the mail files are written
+     * 
+     * @param strDirectory
+     *            The directory
+     */
+    public void setDirectory( String strDirectory )
+    {
+        _strDirectory = strDirectory;
+    }
+
+    /**
+     * Returns the directory where the mail files are written
+     * 
+     * @return The directory
+     */
+    public String getDirectory( )
+    {
+        return _strDirectory;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void send( Notification notification ) throws IOException
+    {
+        Path directory = Paths.get( _strDirectory );
+        Files.createDirectories( directory );
+
+        StringBuilder sbMail = new StringBuilder( );
+        sbMail.append( "Date: " ).append( new Date( ) ).append( CRLF );
+        sbMail.append( "From: \"" ).append( notification.getSenderName( ) ).append( "\" <" ).append( notification.getSenderEmail( ) ).append( '>' ).append( CRLF );
+        sbMail.append( "To: " ).append( notification.getRecipients( ) ).append( CRLF );
+        sbMail.append( "Subject: " ).append( notification.getSubject( ) ).append( CRLF );
+        sbMail.append( "Content-Type: text/html; charset=UTF-8" ).append( CRLF );
+        sbMail.append( CRLF );
+        sbMail.append( notification.getMessage( ) );
+
+        Files.write( directory.resolve( FILE_PREFIX + notification.getId( ) + FILE_EXTENSION ), sbMail.toString( ).getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service.notification;
+
+import fr.paris.lutece.plugins.appcenter.business.notification.Notification;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Properties;
+import javax.mail.Authenticator;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Notification sender that sends the notifications to the SMTP server of the portal. The mail is sent synchronously, so a failure is reported to the
+ * queue which retries it, instead of being handed over to the mail queue of the portal
+ */
+public class MailNotificationSender implements INotificationSender
+{
+    // Properties of the portal
+    private static final String PROPERTY_MAIL_HOST = "mail.server";
+    private static final String PROPERTY_MAIL_PORT = "mail.server.port";
+    private static final String PROPERTY_MAIL_USERNAME = "mail.username";
+    private static final String PROPERTY_MAIL_PASSWORD = "mail.password";
+    private static final String PROPERTY_MAIL_CHARSET = "mail.charset";
+    private static final String PROPERTY_MAIL_NOREPLY_EMAIL = "mail.noreply.email";
+    private static final int DEFAULT_MAIL_PORT = 25;
+    private static final String DEFAULT_MAIL_CHARSET = "utf-8";
+
+    // Properties of the plugin
+    private static final String PROPERTY_CONNECTION_TIMEOUT = "appcenter.notification.mail.connectionTimeout";
+    private static final String PROPERTY_TIMEOUT = "appcenter.notification.mail.timeout";
+    private static final String PROPERTY_WRITE_TIMEOUT = "appcenter.notification.mail.writeTimeout";
+    private static final String PROPERTY_STARTTLS = "appcenter.notification.mail.starttls";
+    private static final String PROPERTY_SSL = "appcenter.notification.mail.ssl";
+    private static final int DEFAULT_TIMEOUT = 30000;
+
+    // JavaMail session properties
+    private static final String SMTP_HOST = "mail.smtp.host";
+    private static final String SMTP_PORT = "mail.smtp.port";
+    private static final String SMTP_AUTH = "mail.smtp.auth";
+    private static final String SMTP_CONNECTION_TIMEOUT = "mail.smtp.connectiontimeout";
+    private static final String SMTP_TIMEOUT = "mail.smtp.timeout";
+    private static final String SMTP_WRITE_TIMEOUT = "mail.smtp.writetimeout";
+    private static final String SMTP_STARTTLS_ENABLE = "mail.smtp.starttls.enable";
+    private static final String SMTP_STARTTLS_REQUIRED = "mail.smtp.starttls.required";
+    private static final String SMTP_SSL_ENABLE = "mail.smtp.ssl.enable";
+
+    private static final String CONTENT_TYPE_HTML = "text/html; charset=";
+    private static final String RECIPIENTS_SEPARATOR = ";";
+    private static final String ADDRESSES_SEPARATOR = ",";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void send( Notification notification ) throws IOException
+    {
+        String strCharset = AppPropertiesService.getProperty( PROPERTY_MAIL_CHARSET, DEFAULT_MAIL_CHARSET );
+        String strSenderEmail = StringUtils.isNotBlank( notification.getSenderEmail( ) ) ? notification.getSenderEmail( )
+                : AppPropertiesService.getProperty( PROPERTY_MAIL_NOREPLY_EMAIL );
+
+        try
+        {
+            MimeMessage message = new MimeMessage( getSession( ) );
+            message.setFrom( new InternetAddress( strSenderEmail, notification.getSenderName( ), strCharset ) );
+            message.setRecipients( Message.RecipientType.TO,
+                    InternetAddress.parse( notification.getRecipients( ).replace( RECIPIENTS_SEPARATOR, ADDRESSES_SEPARATOR ) ) );
+            message.setSubject( notification.getSubject( ), strCharset );
+            message.setContent( notification.getMessage( ), CONTENT_TYPE_HTML + strCharset );
+            message.setSentDate( new Date( ) );
+
+            Transport.send( message );
+        }
+        catch( AddressException e )
+        {
+            throw new NotificationRejectedException( "Invalid address in the notification " + notification.getId( ) + " to " + notification.getRecipients( ),
+                    e );
+        }
+        catch( MessagingException e )
+        {
+            throw new IOException( "Unable to send the notification " + notification.getId( ) + " to " + notification.getRecipients( ), e );
+        }
+    }
+
+    /**
+     * Build the mail session from the SMTP properties of the portal. The timeouts keep a stalled SMTP server from holding a worker of the queue beyond
+     * the claim of its notifications
+     * 
+     * @return the session
+     */
+    private static Session getSession( )
+    {
+        Properties properties = new Properties( );
+        properties.put( SMTP_HOST, AppPropertiesService.getProperty( PROPERTY_MAIL_HOST ) );
+        properties.put( SMTP_PORT, String.valueOf( AppPropertiesService.getPropertyInt( PROPERTY_MAIL_PORT, DEFAULT_MAIL_PORT ) ) );
+        properties.put( SMTP_CONNECTION_TIMEOUT, String.valueOf( AppPropertiesService.getPropertyInt( PROPERTY_CONNECTION_TIMEOUT, DEFAULT_TIMEOUT ) ) );
+        properties.put( SMTP_TIMEOUT, String.valueOf( AppPropertiesService.getPropertyInt( PROPERTY_TIMEOUT, DEFAULT_TIMEOUT ) ) );
+        properties.put( SMTP_WRITE_TIMEOUT, String.valueOf( AppPropertiesService.getPropertyInt( PROPERTY_WRITE_TIMEOUT, DEFAULT_TIMEOUT ) ) );
+
+        String strStartTls = Boolean.toString( Boolean.parseBoolean( AppPropertiesService.getProperty( PROPERTY_STARTTLS ) ) );
+        properties.put( SMTP_STARTTLS_ENABLE, strStartTls );
+        properties.put( SMTP_STARTTLS_REQUIRED, strStartTls );
+        properties.put( SMTP_SSL_ENABLE, Boolean.toString( Boolean.parseBoolean( AppPropertiesService.getProperty( PROPERTY_SSL ) ) ) );
+
+        String strUsername = AppPropertiesService.getProperty( PROPERTY_MAIL_USERNAME );
+        if ( StringUtils.isBlank( strUsername ) )
+        {
+            return Session.getInstance( properties );
+        }
+
+        String strPassword = AppPropertiesService.getProperty( PROPERTY_MAIL_PASSWORD );
+        properties.put( SMTP_AUTH, Boolean.TRUE.toString( ) );
+
+        return Session.getInstance( properties, new Authenticator( )
+        {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication( )
+            {
+                return new PasswordAuthentication( strUsername, strPassword );
+            }
+        } );
+    }
+}
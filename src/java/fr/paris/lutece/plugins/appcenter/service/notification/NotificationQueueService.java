@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service.notification;
+
+import fr.paris.lutece.plugins.appcenter.business.notification.Notification;
+import fr.paris.lutece.plugins.appcenter.business.notification.NotificationHome;
+import fr.paris.lutece.portal.service.i18n.I18nService;
+import fr.paris.lutece.portal.service.spring.SpringContextService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Outbound notification queue. The workflow tasks enqueue their mails in the database, the NotificationQueueDaemon sends them with a pool of workers
+ * and retries the failed ones with an exponential backoff. The notifications of a digest are gathered in one mail per recipient. Each run claims the
+ * notifications it sends, so the daemons of several nodes never send the same notification
+ */
+public final class NotificationQueueService
+{
+    private static final String BEAN_NOTIFICATION_SENDER = "appcenter.notificationSender";
+
+    // Properties
+    private static final String PROPERTY_BATCH_SIZE = "appcenter.notification.queue.batchSize";
+    private static final String PROPERTY_WORKERS = "appcenter.notification.queue.workers";
+    private static final String PROPERTY_MAX_ATTEMPTS = "appcenter.notification.queue.maxAttempts";
+    private static final String PROPERTY_RETRY_DELAY = "appcenter.notification.queue.retryDelay";
+    private static final String PROPERTY_CLAIM_TIMEOUT = "appcenter.notification.queue.claimTimeout";
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_WORKERS = 4;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_RETRY_DELAY = 60;
+    private static final int DEFAULT_CLAIM_TIMEOUT = 600;
+
+    private static final String MESSAGE_DIGEST_SUBJECT = "appcenter.notification.digest.subject";
+    private static final String RECIPIENTS_SEPARATOR = ";";
+    private static final String DIGEST_MESSAGE_SEPARATOR = "<hr/>";
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private NotificationQueueService( )
+    {
+    }
+
+    /**
+     * Add a notification to the queue. It is stored in the current transaction, if any, so it is only sent if the transaction is committed
+     * 
+     * @param strRecipients
+     *            The recipients, separated by semicolons
+     * @param strSenderName
+     *            The sender name
+     * @param strSenderEmail
+     *            The sender email
+     * @param strSubject
+     *            The subject
+     * @param strMessage
+     *            The HTML message
+     */
+    public static void enqueue( String strRecipients, String strSenderName, String strSenderEmail, String strSubject, String strMessage )
+    {
+        if ( StringUtils.isBlank( strRecipients ) )
+        {
+            return;
+        }
+
+        Timestamp now = new Timestamp( System.currentTimeMillis( ) );
+        NotificationHome.create( newNotification( strRecipients, strSenderName, strSenderEmail, strSubject, strMessage, now, null ) );
+    }
+
+    /**
+     * Add a notification to a digest. The notification is stored once per recipient and all the notifications of the digest added for a recipient
+     * during the window are sent to the recipient in one mail at the end of the window
+     * 
+     * @param strDigestKey
+     *            The key of the digest
+     * @param nWindow
+     *            The number of minutes during which the notifications are gathered
+     * @param strRecipients
+     *            The recipients, separated by semicolons
+     * @param strSenderName
+     *            The sender name
+     * @param strSenderEmail
+     *            The sender email
+     * @param strSubject
+     *            The subject
+     * @param strMessage
+     *            The HTML message
+     */
+    public static void enqueueDigest( String strDigestKey, int nWindow, String strRecipients, String strSenderName, String strSenderEmail,
+            String strSubject, String strMessage )
+    {
+        if ( StringUtils.isBlank( strRecipients ) )
+        {
+            return;
+        }
+
+        Timestamp endOfWindow = new Timestamp( System.currentTimeMillis( ) + nWindow * 60000L );
+        for ( String strRecipient : strRecipients.split( RECIPIENTS_SEPARATOR ) )
+        {
+            if ( StringUtils.isNotBlank( strRecipient ) )
+            {
+                String strRecipientTrimmed = strRecipient.trim( );
+
+                // Join the window already opened for this recipient, if any
+                Timestamp dateSending = NotificationHome.findDigestNextAttemptDate( strDigestKey, strRecipientTrimmed );
+                NotificationHome.create( newNotification( strRecipientTrimmed, strSenderName, strSenderEmail, strSubject, strMessage,
+                        ( dateSending != null ) ? dateSending : endOfWindow, strDigestKey ) );
+            }
+        }
+    }
+
+    /**
+     * Build a new notification
+     * 
+     * @param strRecipients
+     *            The recipients, separated by semicolons
+     * @param strSenderName
+     *            The sender name
+     * @param strSenderEmail
+     *            The sender email
+     * @param strSubject
+     *            The subject
+     * @param strMessage
+     *            The HTML message
+     * @param dateSending
+     *            The date from which the notification can be sent
+     * @param strDigestKey
+     *            The key of the digest, or null
+     * @return The notification
+     */
+    private static Notification newNotification( String strRecipients, String strSenderName, String strSenderEmail, String strSubject, String strMessage,
+            Timestamp dateSending, String strDigestKey )
+    {
+        Notification notification = new Notification( );
+        notification.setRecipients( strRecipients );
+        notification.setSenderName( strSenderName );
+        notification.setSenderEmail( strSenderEmail );
+        notification.setSubject( strSubject );
+        notification.setMessage( strMessage );
+        notification.setCreationDate( new Timestamp( System.currentTimeMillis( ) ) );
+        notification.setNbAttempts( 0 );
+        notification.setNextAttemptDate( dateSending );
+        notification.setDigestKey( strDigestKey );
+
+        return notification;
+    }
+
+    /**
+     * Send a batch of the notifications waiting in the queue. The notifications are claimed first : the ones claimed by another node are left to it,
+     * unless its claim has expired
+     * 
+     * @return The logs of the processing
+     */
+    public static String processQueue( )
+    {
+        return processQueue( SpringContextService.getBean( BEAN_NOTIFICATION_SENDER ) );
+    }
+
+    /**
+     * Send a batch of the notifications waiting in the queue with a given sender
+     * 
+     * @param sender
+     *            The notification sender
+     * @return The logs of the processing
+     */
+    static synchronized String processQueue( INotificationSender sender )
+    {
+        Timestamp now = new Timestamp( System.currentTimeMillis( ) );
+        Timestamp dateClaimExpired = new Timestamp( now.getTime( ) - AppPropertiesService.getPropertyInt( PROPERTY_CLAIM_TIMEOUT, DEFAULT_CLAIM_TIMEOUT )
+                * 1000L );
+        List<Integer> listIdNotifications = NotificationHome.getIdNotificationsToSend( now, dateClaimExpired,
+                AppPropertiesService.getPropertyInt( PROPERTY_BATCH_SIZE, DEFAULT_BATCH_SIZE ) );
+
+        String strClaimToken = UUID.randomUUID( ).toString( );
+        NotificationHome.claim( listIdNotifications, strClaimToken, now, dateClaimExpired );
+
+        // The batch size may have cut a digest : the rest of the due digests of the claimed recipients is claimed too, to be sent in the same mail
+        Set<String> setDigests = new HashSet<>( );
+        for ( Notification notification : NotificationHome.getClaimedNotifications( strClaimToken ) )
+        {
+            if ( notification.getDigestKey( ) != null
+                    && setDigests.add( notification.getDigestKey( ) + RECIPIENTS_SEPARATOR + notification.getRecipients( ) ) )
+            {
+                NotificationHome.claimDigest( notification.getDigestKey( ), notification.getRecipients( ), strClaimToken, now, dateClaimExpired );
+            }
+        }
+
+        List<Notification> listNotifications = NotificationHome.getClaimedNotifications( strClaimToken );
+
+        if ( listNotifications.isEmpty( ) )
+        {
+            return "No notification to send";
+        }
+
+        // The notifications of a digest for the same recipients are sent together
+        Map<String, List<Notification>> mapMails = new LinkedHashMap<>( );
+        for ( Notification notification : listNotifications )
+        {
+            String strMailKey = ( notification.getDigestKey( ) == null ) ? String.valueOf( notification.getId( ) )
+                    : notification.getDigestKey( ) + RECIPIENTS_SEPARATOR + notification.getRecipients( );
+            mapMails.computeIfAbsent( strMailKey, key -> new ArrayList<>( ) ).add( notification );
+        }
+
+        int nWorkers = Math.max( 1, Math.min( AppPropertiesService.getPropertyInt( PROPERTY_WORKERS, DEFAULT_WORKERS ), mapMails.size( ) ) );
+        ExecutorService executor = Executors.newFixedThreadPool( nWorkers );
+        List<Future<Integer>> listResults = new ArrayList<>( );
+
+        for ( List<Notification> listMailNotifications : mapMails.values( ) )
+        {
+            listResults.add( executor.submit( ( ) -> send( sender, listMailNotifications ) ) );
+        }
+        executor.shutdown( );
+
+        int nSent = 0;
+        for ( Future<Integer> result : listResults )
+        {
+            try
+            {
+                nSent += result.get( );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+                break;
+            }
+            catch( ExecutionException e )
+            {
+                AppLogService.error( "Unable to process a notification of the queue", e );
+            }
+        }
+
+        return nSent + " notification(s) sent, " + ( listNotifications.size( ) - nSent ) + " not sent";
+    }
+
+    /**
+     * Send notifications in one mail and remove them from the queue, or schedule their next attempt if the mail can't be sent. The notifications
+     * rejected by the sender are removed without retry
+     * 
+     * @param sender
+     *            The notification sender
+     * @param listNotifications
+     *            The notifications, with the same recipients
+     * @return the number of notifications sent
+     */
+    private static int send( INotificationSender sender, List<Notification> listNotifications )
+    {
+        try
+        {
+            sender.send( ( listNotifications.size( ) == 1 ) ? listNotifications.get( 0 ) : mergeNotifications( listNotifications ) );
+        }
+        catch( NotificationRejectedException e )
+        {
+            for ( Notification notification : listNotifications )
+            {
+                AppLogService.error( "The notification " + notification.getId( ) + " to " + notification.getRecipients( ) + " is rejected, it is discarded", e );
+                NotificationHome.remove( notification.getId( ) );
+            }
+            return 0;
+        }
+        catch( Exception e )
+        {
+            for ( Notification notification : listNotifications )
+            {
+                scheduleRetry( notification, e );
+            }
+            return 0;
+        }
+
+        for ( Notification notification : listNotifications )
+        {
+            NotificationHome.remove( notification.getId( ) );
+        }
+        return listNotifications.size( );
+    }
+
+    /**
+     * Gather the notifications of a digest in one notification, with a subject giving their number and all the messages
+     * 
+     * @param listNotifications
+     *            The notifications, with the same recipients
+     * @return The digest notification
+     */
+    private static Notification mergeNotifications( List<Notification> listNotifications )
+    {
+        Notification first = listNotifications.get( 0 );
+        StringBuilder sbMessage = new StringBuilder( );
+        for ( Notification notification : listNotifications )
+        {
+            if ( sbMessage.length( ) > 0 )
+            {
+                sbMessage.append( DIGEST_MESSAGE_SEPARATOR );
+            }
+            sbMessage.append( notification.getMessage( ) );
+        }
+
+        String strSubject = I18nService.getLocalizedString( MESSAGE_DIGEST_SUBJECT, new Object [ ] {
+            listNotifications.size( )
+        }, I18nService.getDefaultLocale( ) );
+        Notification digest = newNotification( first.getRecipients( ), first.getSenderName( ), first.getSenderEmail( ), strSubject, sbMessage.toString( ),
+                first.getNextAttemptDate( ), first.getDigestKey( ) );
+        digest.setId( first.getId( ) );
+
+        return digest;
+    }
+
+    /**
+     * Schedule the next attempt of a notification, delaying it twice as long after each failure. The notification is discarded once the maximum
+     * number of attempts is reached
+     * 
+     * @param notification
+     *            The notification
+     * @param e
+     *            The error of the last attempt
+     */
+    private static void scheduleRetry( Notification notification, Exception e )
+    {
+        int nNbAttempts = notification.getNbAttempts( ) + 1;
+
+        if ( nNbAttempts >= AppPropertiesService.getPropertyInt( PROPERTY_MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS ) )
+        {
+            AppLogService.error( "Unable to send the notification " + notification.getId( ) + " to " + notification.getRecipients( ) + " after " + nNbAttempts
+                    + " attempts, it is discarded", e );
+            NotificationHome.remove( notification.getId( ) );
+            return;
+        }
+
+        AppLogService.error( "Unable to send the notification " + notification.getId( ) + " to " + notification.getRecipients( ) + ", it will be retried", e );
+        long lDelay = AppPropertiesService.getPropertyInt( PROPERTY_RETRY_DELAY, DEFAULT_RETRY_DELAY ) * 1000L << ( nNbAttempts - 1 );
+        notification.setNbAttempts( nNbAttempts );
+        notification.setNextAttemptDate( new Timestamp( System.currentTimeMillis( ) + lDelay ) );
+        NotificationHome.updateAttempt( notification );
+    }
+}
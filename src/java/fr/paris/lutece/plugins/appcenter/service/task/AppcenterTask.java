@@ -46,14 +46,19 @@ import fr.paris.lutece.plugins.appcenter.business.ApplicationDatas;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationHome;
 import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
+import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
+import fr.paris.lutece.plugins.appcenter.service.ApplicationDataCacheService;
 import fr.paris.lutece.plugins.appcenter.service.ApplicationService;
 import fr.paris.lutece.plugins.appcenter.service.DemandService;
 import fr.paris.lutece.plugins.workflowcore.business.resource.ResourceHistory;
 import fr.paris.lutece.plugins.workflowcore.service.resource.IResourceHistoryService;
 import fr.paris.lutece.plugins.workflowcore.service.task.SimpleTask;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.util.bean.BeanUtil;
 import fr.paris.lutece.util.beanvalidation.BeanValidationUtil;
+import fr.paris.lutece.util.sql.TransactionManager;
 
 /**
  * 
@@ -113,7 +118,48 @@ public abstract class AppcenterTask extends SimpleTask
 
         Application application = ApplicationHome.findByPrimaryKey( demand.getIdApplication( ) );
 
-        ADS datas = ApplicationService.loadApplicationDataSubset( application, applicationDatasClass );
+        // The application datas and the demand are saved together : a failure leaves both unchanged
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            processApplicationData( request, locale, applicationData, applicationDatasClass, demand, application, funct );
+
+            TransactionManager.commitTransaction( plugin );
+        }
+        catch( Exception e )
+        {
+            TransactionManager.rollBack( plugin, e );
+            ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
+            throw new AppException( "Unable to process the task for the demand " + demand.getId( ), e );
+        }
+        // The data cached while the transaction was running may be the one from before the commit
+        ApplicationDataCacheService.getInstance( ).invalidate( application.getId( ) );
+    }
+
+    /**
+     * Add or modify the application data of the demand in the application datas, then save the application datas and the demand
+     * 
+     * @param request
+     *            the httpservletRequest
+     * @param locale
+     *            the locale
+     * @param applicationData
+     *            the application data populated from the request
+     * @param applicationDatasClass
+     *            a class who extend ApplicationDatas
+     * @param demand
+     *            the demand
+     * @param application
+     *            the application of the demand
+     * @param funct
+     *            AppCenterTaskFunctional
+     */
+    private <AD extends ApplicationData, ADS extends ApplicationDatas<AD>, D extends Demand> void processApplicationData( HttpServletRequest request,
+            Locale locale, AD applicationData, Class<ADS> applicationDatasClass, D demand, Application application, AppCenterTaskFunctional funct )
+    {
+        // The subset is read from the database and its row locked, so that concurrent tasks on the same application don't overwrite each other
+        ADS datas = ApplicationService.loadApplicationDataSubsetForUpdate( application, applicationDatasClass );
         if ( datas == null )
         {
             try
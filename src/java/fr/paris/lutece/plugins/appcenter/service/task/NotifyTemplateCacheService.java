@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service.task;
+
+import fr.paris.lutece.portal.service.cache.AbstractCacheableService;
+import fr.paris.lutece.portal.service.template.AppTemplateService;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import freemarker.core.Environment;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateMethodModelEx;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache of the compiled FreeMarker templates of the notify task configs (subject and message), by task
+ */
+public final class NotifyTemplateCacheService extends AbstractCacheableService
+{
+    public static final String TEMPLATE_SUBJECT = "subject";
+    public static final String TEMPLATE_MESSAGE = "message";
+
+    private static final String CACHE_NAME = "appcenter.notifyTemplateCacheService";
+    private static final String KEY_PREFIX = "task-";
+    private static final String KEY_SEPARATOR = "-";
+    private static final String MARK_CONFIGURATION = "appcenter_notify_configuration";
+    private static final String TEMPLATE_CONFIGURATION = "${" + MARK_CONFIGURATION + "()}";
+
+    private static NotifyTemplateCacheService _singleton;
+
+    // The FreeMarker configuration of the portal template service, which doesn't expose it
+    private volatile Configuration _configuration;
+
+    /**
+     * Private constructor
+     */
+    private NotifyTemplateCacheService( )
+    {
+    }
+
+    /**
+     * Get the unique instance of the service
+     * 
+     * @return the instance
+     */
+    public static synchronized NotifyTemplateCacheService getInstance( )
+    {
+        if ( _singleton == null )
+        {
+            _singleton = new NotifyTemplateCacheService( );
+            _singleton.initCache( );
+        }
+
+        return _singleton;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String getName( )
+    {
+        return CACHE_NAME;
+    }
+
+    /**
+     * Merge a template of a notify task config with a model. The template is compiled once per task and per version of its source
+     * 
+     * @param nIdTask
+     *            the id of the task
+     * @param strTemplateName
+     *            the name of the template in the config (TEMPLATE_SUBJECT or TEMPLATE_MESSAGE)
+     * @param strSource
+     *            the source of the template in the config
+     * @param model
+     *            the model
+     * @return the result of the merge
+     */
+    public String render( int nIdTask, String strTemplateName, String strSource, Map<String, Object> model )
+    {
+        if ( strSource == null )
+        {
+            return null;
+        }
+
+        Template template = getTemplate( nIdTask, strTemplateName, strSource );
+        if ( template != null )
+        {
+            try
+            {
+                StringWriter writer = new StringWriter( );
+                template.process( model, writer );
+
+                return writer.toString( );
+            }
+            catch( TemplateException | IOException e )
+            {
+                AppLogService.error( "Unable to merge the " + strTemplateName + " template of the task " + nIdTask, e );
+            }
+        }
+
+        // Let the portal template service render (or report) what could not be done here
+        return AppTemplateService.getTemplateFromStringFtl( strSource, Locale.getDefault( ), model ).getHtml( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void resetCache( )
+    {
+        // The portal configuration may have been reset too
+        _configuration = null;
+        super.resetCache( );
+    }
+
+    /**
+     * Remove the compiled templates of a task. Must be called when the config of the task is saved
+     * 
+     * @param nIdTask
+     *            the id of the task
+     */
+    public void invalidate( int nIdTask )
+    {
+        removeKey( getCacheKey( nIdTask, TEMPLATE_SUBJECT ) );
+        removeKey( getCacheKey( nIdTask, TEMPLATE_MESSAGE ) );
+    }
+
+    /**
+     * Get the compiled template of a task, compiling it if it is not in the cache or if its source has changed since it was compiled
+     * 
+     * @param nIdTask
+     *            the id of the task
+     * @param strTemplateName
+     *            the name of the template
+     * @param strSource
+     *            the source of the template
+     * @return the compiled template, or null if the source can't be compiled
+     */
+    private Template getTemplate( int nIdTask, String strTemplateName, String strSource )
+    {
+        String strKey = getCacheKey( nIdTask, strTemplateName );
+
+        CompiledTemplate compiledTemplate = (CompiledTemplate) getFromCache( strKey );
+        if ( compiledTemplate == null || !compiledTemplate.getSource( ).equals( strSource ) )
+        {
+            Configuration configuration = getConfiguration( );
+            if ( configuration == null )
+            {
+                return null;
+            }
+
+            try
+            {
+                compiledTemplate = new CompiledTemplate( strSource, new Template( strKey, new StringReader( strSource ), configuration ) );
+                putInCache( strKey, compiledTemplate );
+            }
+            catch( IOException e )
+            {
+                AppLogService.error( "Unable to compile the " + strTemplateName + " template of the task " + nIdTask, e );
+                return null;
+            }
+        }
+
+        return compiledTemplate.getTemplate( );
+    }
+
+    /**
+     * Get the FreeMarker configuration used by AppTemplateService, so that the compiled templates get the same settings, auto-included macros and shared
+     * variables as the ones it renders. It is read from the environment of a template rendered by the portal
+     * 
+     * @return the configuration, or null if it can't be read
+     */
+    private Configuration getConfiguration( )
+    {
+        Configuration configuration = _configuration;
+        if ( configuration == null )
+        {
+            ConfigurationReader reader = new ConfigurationReader( );
+            Map<String, Object> model = new HashMap<>( );
+            model.put( MARK_CONFIGURATION, reader );
+            AppTemplateService.getTemplateFromStringFtl( TEMPLATE_CONFIGURATION, Locale.getDefault( ), model );
+
+            configuration = reader.getConfiguration( );
+            _configuration = configuration;
+        }
+
+        return configuration;
+    }
+
+    /**
+     * Build the cache key of a template of a task
+     * 
+     * @param nIdTask
+     *            the id of the task
+     * @param strTemplateName
+     *            the name of the template
+     * @return the key
+     */
+    private static String getCacheKey( int nIdTask, String strTemplateName )
+    {
+        return KEY_PREFIX + nIdTask + KEY_SEPARATOR + strTemplateName;
+    }
+
+    /**
+     * Template method reading the configuration of the environment it is called from
+     */
+    private static final class ConfigurationReader implements TemplateMethodModelEx
+    {
+        private Configuration _configuration;
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public Object exec( List arguments )
+        {
+            _configuration = Environment.getCurrentEnvironment( ).getConfiguration( );
+
+            return "";
+        }
+
+        /**
+         * Returns the configuration read by the last call
+         * 
+         * @return the configuration, or null if the method has not been called
+         */
+        Configuration getConfiguration( )
+        {
+            return _configuration;
+        }
+    }
+
+    /**
+     * A compiled template with the source it was compiled from
+     */
+    private static final class CompiledTemplate
+    {
+        private final String _strSource;
+        private final Template _template;
+
+        /**
+         * Constructor
+         * 
+         * @param strSource
+         *            the source
+         * @param template
+         *            the compiled template
+         */
+        CompiledTemplate( String strSource, Template template )
+        {
+            _strSource = strSource;
+            _template = template;
+        }
+
+        /**
+         * Returns the source
+         * 
+         * @return the source
+         */
+        String getSource( )
+        {
+            return _strSource;
+        }
+
+        /**
+         * Returns the compiled template
+         * 
+         * @return the compiled template
+         */
+        Template getTemplate( )
+        {
+            return _template;
+        }
+    }
+}
@@ -39,16 +39,14 @@ import fr.paris.lutece.plugins.appcenter.business.CategoryDemandTypeHome;
 import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
 import fr.paris.lutece.plugins.appcenter.business.DemandType;
-import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
-import fr.paris.lutece.plugins.appcenter.business.Role;
-import fr.paris.lutece.plugins.appcenter.business.RoleHome;
-import fr.paris.lutece.plugins.appcenter.business.UserApplicationRole;
 import fr.paris.lutece.plugins.appcenter.business.UserApplicationRoleHome;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfig;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfigHome;
 import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
 import fr.paris.lutece.plugins.appcenter.service.DemandService;
-import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.appcenter.service.DemandTypeRegistry;
+import fr.paris.lutece.plugins.appcenter.service.RoleService;
+import fr.paris.lutece.plugins.appcenter.service.notification.NotificationQueueService;
 import fr.paris.lutece.plugins.workflowcore.business.resource.ResourceHistory;
 import fr.paris.lutece.plugins.workflowcore.service.resource.IResourceHistoryService;
 import fr.paris.lutece.plugins.workflowcore.service.task.SimpleTask;
@@ -56,13 +54,13 @@ import fr.paris.lutece.portal.business.mailinglist.Recipient;
 import fr.paris.lutece.portal.service.mail.MailItem;
 import fr.paris.lutece.portal.service.mail.MailService;
 import fr.paris.lutece.portal.service.mailinglist.AdminMailingListService;
-import fr.paris.lutece.portal.service.template.AppTemplateService;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
@@ -75,6 +73,7 @@ public class TaskNotify extends SimpleTask
     private static final String MARK_ENVIRONMENT = "environment";
     private static final String MARK_APPLICATION = "application";
     private static final String MARK_JSON_DATA = "json_data";
+    private static final String DIGEST_KEY_PREFIX = "task-";
     @Inject
     private IResourceHistoryService _resourceHistoryService;
 
@@ -83,9 +82,7 @@ public class TaskNotify extends SimpleTask
     {
         ResourceHistory resourceHistory = _resourceHistoryService.findByPrimaryKey( nIdResourceHistory );
         // Get the demand
-        Demand demand = DemandHome.findByPrimaryKey( resourceHistory.getIdResource( ) );
-        Class demandClass = DemandTypeService.getClassByDemandTypeId( demand.getIdDemandType( ), DemandTypeHome.getDemandTypesList( ) );
-        demand = DemandHome.findByPrimaryKey( resourceHistory.getIdResource( ), demandClass );
+        Demand demand = DemandHome.findTypedByPrimaryKey( resourceHistory.getIdResource( ) );
 
         // Get the config
         NotifyTaskConfig config = NotifyTaskConfigHome.findByPrimaryKey( getId( ), AppcenterPlugin.getPlugin( ) );
@@ -93,7 +90,16 @@ public class TaskNotify extends SimpleTask
         // Process the remplacement of the subject and message by the markers in the config
         changeMarkers( config, demand, request );
 
-        MailService.sendMailHtml( getRecipients( config, demand ), config.getSenderName( ), MailService.getNoReplyEmail( ), config.getSubject( ), config.getMessage( ) );
+        if ( config.isDigest( ) )
+        {
+            NotificationQueueService.enqueueDigest( DIGEST_KEY_PREFIX + getId( ), config.getDigestWindow( ), getRecipients( config, demand ),
+                    config.getSenderName( ), MailService.getNoReplyEmail( ), config.getSubject( ), config.getMessage( ) );
+        }
+        else
+        {
+            NotificationQueueService.enqueue( getRecipients( config, demand ), config.getSenderName( ), MailService.getNoReplyEmail( ), config.getSubject( ),
+                    config.getMessage( ) );
+        }
     }
 
     @Override
@@ -114,7 +120,7 @@ public class TaskNotify extends SimpleTask
         Map<String, Object> model = new HashMap<String, Object>( );
         model.put( MARK_DEMAND, demand );
         model.put( MARK_APPLICATION, ApplicationHome.findByPrimaryKey( demand.getIdApplication( ) ) );
-        DemandType demandType = DemandTypeHome.findByIdDemandType( demand.getIdDemandType( ) );
+        DemandType demandType = DemandTypeRegistry.getDemandType( demand.getIdDemandType( ) );
         CategoryDemandType categoryDemandType = CategoryDemandTypeHome.findByPrimaryKey( demandType.getIdCategoryDemandType( ) );
         model.put( MARK_DEMAND_TYPE, demandType );
         if ( demand.getEnvironment( ) != null )
@@ -124,8 +130,9 @@ public class TaskNotify extends SimpleTask
         model.put( MARK_CATEGORY_DEMAND_TYPE, categoryDemandType );
         String strJsonData = DemandService.getPrettyPrintDemandData( demand );
         model.put( MARK_JSON_DATA, strJsonData );
-        conf.setMessage( AppTemplateService.getTemplateFromStringFtl( conf.getMessage( ), Locale.getDefault( ), model ).getHtml( ) );
-        conf.setSubject( AppTemplateService.getTemplateFromStringFtl( conf.getSubject( ), Locale.getDefault( ), model ).getHtml( ) );
+        NotifyTemplateCacheService templateCacheService = NotifyTemplateCacheService.getInstance( );
+        conf.setMessage( templateCacheService.render( getId( ), NotifyTemplateCacheService.TEMPLATE_MESSAGE, conf.getMessage( ), model ) );
+        conf.setSubject( templateCacheService.render( getId( ), NotifyTemplateCacheService.TEMPLATE_SUBJECT, conf.getSubject( ), model ) );
     }
 
     /**
@@ -137,28 +144,25 @@ public class TaskNotify extends SimpleTask
      */
     private String getRecipients( NotifyTaskConfig config, Demand demand )
     {
-        List<UserApplicationRole> userAppList = UserApplicationRoleHome.getUserApplicationRolesListByIdApplication( demand.getIdApplication( ) );
         List<String> listEmailAddresses = new ArrayList<>( );
         switch( config.getNotificationType( ) )
         {
             case "owner":
                 return demand.getIdUserFront( );
             case "ownerApp":
-                for ( UserApplicationRole userApp : userAppList )
+                String strOwnerRoleCode = RoleService.getAppOwnerRoleCode( );
+                for ( Map.Entry<String, Set<String>> userRoleCodes : UserApplicationRoleHome.getRoleCodesByIdApplication( demand.getIdApplication( ) ).entrySet( ) )
                 {
-                    Role role = RoleHome.findByPrimaryKey( userApp.getIdRole( ) );
-                    if ( role.getCode( ) == "app_owner" )
+                    if ( userRoleCodes.getValue( ).contains( strOwnerRoleCode ) )
                     {
-                        listEmailAddresses.add( userApp.getIdUser( ) );
+                        listEmailAddresses.add( userRoleCodes.getKey( ) );
                         break;
                     }
                 }
                 break;
             case "all":
-                for ( UserApplicationRole userApp : userAppList )
-                {
-                    listEmailAddresses.add( userApp.getIdUser( ) );
-                }
+                listEmailAddresses.addAll( UserApplicationRoleHome.getRoleCodesByIdApplication( demand.getIdApplication( ) ).keySet( ) );
+                break;
             case "mailing_list":
                 Collection<Recipient> colRec = AdminMailingListService.getRecipients( config.getIdMailingList( ) );
                 for ( Recipient recipient : colRec )
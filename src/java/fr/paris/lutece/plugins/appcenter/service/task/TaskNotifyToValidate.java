@@ -40,18 +40,17 @@ import fr.paris.lutece.plugins.appcenter.business.CategoryDemandTypeHome;
 import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
 import fr.paris.lutece.plugins.appcenter.business.DemandType;
-import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManager;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManagerHome;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfig;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfigHome;
 import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
 import fr.paris.lutece.plugins.appcenter.service.DemandService;
-import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.appcenter.service.DemandTypeRegistry;
+import fr.paris.lutece.plugins.appcenter.service.notification.NotificationQueueService;
 import fr.paris.lutece.plugins.workflowcore.business.resource.ResourceHistory;
 import fr.paris.lutece.plugins.workflowcore.service.resource.IResourceHistoryService;
 import fr.paris.lutece.portal.service.mail.MailService;
-import fr.paris.lutece.portal.service.template.AppTemplateService;
 import fr.paris.lutece.util.url.UrlItem;
 import java.util.ArrayList;
 import java.util.Date;
@@ -92,12 +91,10 @@ public class TaskNotifyToValidate extends TaskNotify
     {
         ResourceHistory resourceHistory = _resourceHistoryService.findByPrimaryKey( nIdResourceHistory );
 
-        Demand demand = DemandHome.findByPrimaryKey( resourceHistory.getIdResource( ) );
-        Class demandClass = DemandTypeService.getClassByDemandTypeId( demand.getIdDemandType( ), DemandTypeHome.getDemandTypesList( ) );
-        demand = DemandHome.findByPrimaryKey( resourceHistory.getIdResource( ), demandClass );
+        Demand demand = DemandHome.findTypedByPrimaryKey( resourceHistory.getIdResource( ) );
         Application application = ApplicationHome.findByPrimaryKey( demand.getIdApplication( ) );
         OrganizationManager organizationManager = application.getOrganizationManager( );
-        DemandType demandType = DemandTypeHome.findByIdDemandType( demand.getIdDemandType( ) );
+        DemandType demandType = DemandTypeRegistry.getDemandType( demand.getIdDemandType( ) );
         CategoryDemandType categoryDemandType = CategoryDemandTypeHome.findByPrimaryKey( demandType.getIdCategoryDemandType( ) );
         String strJsonData = DemandService.getPrettyPrintDemandData( demand );
 
@@ -143,11 +140,12 @@ public class TaskNotifyToValidate extends TaskNotify
 
         NotifyTaskConfig conf = NotifyTaskConfigHome.findByPrimaryKey( getId( ), AppcenterPlugin.getPlugin( ) );
 
-        String strMessage = AppTemplateService.getTemplateFromStringFtl( conf.getMessage( ), Locale.getDefault( ), model ).getHtml( );
-        String strSubject = AppTemplateService.getTemplateFromStringFtl( conf.getSubject( ), Locale.getDefault( ), model ).getHtml( );
+        NotifyTemplateCacheService templateCacheService = NotifyTemplateCacheService.getInstance( );
+        String strMessage = templateCacheService.render( getId( ), NotifyTemplateCacheService.TEMPLATE_MESSAGE, conf.getMessage( ), model );
+        String strSubject = templateCacheService.render( getId( ), NotifyTemplateCacheService.TEMPLATE_SUBJECT, conf.getSubject( ), model );
 
 
-        MailService.sendMailHtml( organizationManager.getMail( ), conf.getSenderName( ), MailService.getNoReplyEmail( ), strSubject, strMessage );
+        NotificationQueueService.enqueue( organizationManager.getMail( ), conf.getSenderName( ), MailService.getNoReplyEmail( ), strSubject, strMessage );
     }
 
     @Override
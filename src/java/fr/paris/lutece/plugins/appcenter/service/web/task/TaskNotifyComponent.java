@@ -36,12 +36,15 @@ package fr.paris.lutece.plugins.appcenter.service.web.task;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfig;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfigHome;
 import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
+import fr.paris.lutece.plugins.appcenter.service.task.NotifyTemplateCacheService;
 import fr.paris.lutece.plugins.workflow.web.task.NoFormTaskComponent;
 import fr.paris.lutece.plugins.workflowcore.business.task.ITaskType;
 import fr.paris.lutece.plugins.workflowcore.service.task.ITask;
 import fr.paris.lutece.plugins.workflowcore.service.task.ITaskFactory;
 import fr.paris.lutece.portal.service.admin.AdminUserService;
 import fr.paris.lutece.portal.service.mailinglist.AdminMailingListService;
+import fr.paris.lutece.portal.service.message.AdminMessage;
+import fr.paris.lutece.portal.service.message.AdminMessageService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.util.AppPathService;
@@ -70,7 +73,10 @@ public class TaskNotifyComponent extends NoFormTaskComponent
     private static final String PARAMETER_APPLY = "apply";
     private static final String PARAMETER_NOTIFICATION_TYPE = "notification_type";
     private static final String PARAMETER_ID_MAILING_LIST = "id_mailing_list";
+    private static final String PARAMETER_DIGEST = "digest";
+    private static final String PARAMETER_DIGEST_WINDOW = "digest_window";
     private static final String CONSTANT_MAILING_LIST = "mailing_list";
+    private static final String MESSAGE_DIGEST_WINDOW_INVALID = "appcenter.message.digestWindowInvalid";
 
     @Inject
     @Named( "appcenter.taskTypeNotify" )
@@ -137,6 +143,12 @@ public class TaskNotifyComponent extends NoFormTaskComponent
                 // Customize the populate method for the config
                 populate( config, request );
 
+                // A digest must wait for at least one minute, otherwise each notification would be sent alone
+                if ( config.isDigest( ) && config.getDigestWindow( ) < 1 )
+                {
+                    return AdminMessageService.getMessageUrl( request, MESSAGE_DIGEST_WINDOW_INVALID, AdminMessage.TYPE_STOP );
+                }
+
                 String strApply = request.getParameter( PARAMETER_APPLY );
 
                 // Check if the AdminUser clicked on "Apply" or on "Save"
@@ -158,6 +170,7 @@ public class TaskNotifyComponent extends NoFormTaskComponent
                 {
                     getTaskConfigService( ).update( config );
                 }
+                NotifyTemplateCacheService.getInstance( ).invalidate( task.getId( ) );
             }
             catch( IllegalAccessException | InvocationTargetException e )
             {
@@ -188,5 +201,9 @@ public class TaskNotifyComponent extends NoFormTaskComponent
         {
             config.setIdMailingList( -1 );
         }
+
+        // An unchecked checkbox is not submitted
+        config.setDigest( request.getParameter( PARAMETER_DIGEST ) != null );
+        config.setDigestWindow( StringUtil.getIntValue( request.getParameter( PARAMETER_DIGEST_WINDOW ), 0 ) );
     }
 }
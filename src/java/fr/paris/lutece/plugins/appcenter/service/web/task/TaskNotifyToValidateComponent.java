@@ -36,6 +36,7 @@ package fr.paris.lutece.plugins.appcenter.service.web.task;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfig;
 import fr.paris.lutece.plugins.appcenter.business.task.NotifyTaskConfigHome;
 import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
+import fr.paris.lutece.plugins.appcenter.service.task.NotifyTemplateCacheService;
 import fr.paris.lutece.plugins.workflow.web.task.NoFormTaskComponent;
 import fr.paris.lutece.plugins.workflowcore.business.task.ITaskType;
 import fr.paris.lutece.plugins.workflowcore.service.task.ITask;
@@ -139,6 +140,7 @@ public class TaskNotifyToValidateComponent extends NoFormTaskComponent
             {
                 getTaskConfigService().update( config );
             }
+            NotifyTemplateCacheService.getInstance( ).invalidate( task.getId( ) );
         }
         else
         {
@@ -51,9 +51,10 @@ import fr.paris.lutece.plugins.appcenter.business.User;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationHome;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManagerHome;
 import fr.paris.lutece.plugins.appcenter.service.ActionService;
+import fr.paris.lutece.plugins.appcenter.service.AppCenterRequestContext;
 import fr.paris.lutece.plugins.appcenter.service.ApplicationService;
 import fr.paris.lutece.plugins.appcenter.service.AuthorizationService;
-import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.appcenter.service.DemandWorkflowService;
 import fr.paris.lutece.plugins.appcenter.service.ResourceTypeConfig;
 import fr.paris.lutece.plugins.appcenter.service.UserService;
 import fr.paris.lutece.plugins.workflowcore.business.state.State;
@@ -64,7 +65,6 @@ import fr.paris.lutece.portal.service.message.SiteMessageException;
 import fr.paris.lutece.portal.service.message.SiteMessageService;
 import fr.paris.lutece.portal.service.security.UserNotSignedException;
 import fr.paris.lutece.portal.service.util.AppPathService;
-import fr.paris.lutece.portal.service.workflow.WorkflowService;
 import fr.paris.lutece.portal.util.mvc.utils.MVCUtils;
 import fr.paris.lutece.portal.util.mvc.xpage.MVCApplication;
 import java.util.List;
@@ -104,7 +104,7 @@ public abstract class AppCenterXPage extends MVCApplication
     protected Application _application;
 
     /**
-     * Get the current application
+     * Get the current application, loaded once per request
      * 
      * @param request
      *            The HTTP request
@@ -115,7 +115,16 @@ public abstract class AppCenterXPage extends MVCApplication
         try
         {
             int nId = Integer.parseInt( request.getParameter( Constants.PARAM_ID_APPLICATION ) );
-            _application = ApplicationHome.findByPrimaryKey( nId );
+            AppCenterRequestContext context = AppCenterRequestContext.getInstance( request );
+            _application = context.getApplication( nId );
+            if ( _application == null )
+            {
+                _application = ApplicationHome.findByPrimaryKey( nId );
+                if ( _application != null )
+                {
+                    context.putApplication( _application );
+                }
+            }
         }
         catch( NumberFormatException e )
         {
@@ -151,21 +160,13 @@ public abstract class AppCenterXPage extends MVCApplication
         model.put( Constants.MARK_DEMANDS, listDemand );
 
         Map<String, Object> mapStates = new HashMap<>( );
-        Map<String, Object> mapHistories = new HashMap<>( );
+        Map<Integer, State> mapStatesByIdDemand = DemandWorkflowService.getStates( listDemand );
         for ( T demand : listDemand )
         {
-            int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
-
-            State state = WorkflowService.getInstance( ).getState( demand.getId( ), Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
-            mapStates.put( Integer.toString( demand.getId( ) ), state );
-
-            String strHistoryHtml = WorkflowService.getInstance( ).getDisplayDocumentHistory( demand.getId( ), Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow,
-                    request, request.getLocale( ) );
-            mapHistories.put( Integer.toString( demand.getId( ) ), strHistoryHtml );
+            mapStates.put( Integer.toString( demand.getId( ) ), mapStatesByIdDemand.get( demand.getId( ) ) );
         }
 
         model.put( Constants.MARK_DEMANDS_STATES, mapStates );
-        model.put( Constants.MARK_DEMANDS_HISTORIES, mapHistories );
     }
 
     /**
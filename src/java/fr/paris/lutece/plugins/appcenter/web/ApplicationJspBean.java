@@ -50,6 +50,7 @@ import fr.paris.lutece.portal.service.message.AdminMessageService;
 import fr.paris.lutece.portal.service.spring.SpringContextService;
 import fr.paris.lutece.portal.service.template.AppTemplateService;
 import fr.paris.lutece.portal.service.util.AppException;
+import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.util.AppPathService;
 import fr.paris.lutece.portal.util.mvc.admin.annotations.Controller;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
@@ -60,6 +61,7 @@ import fr.paris.lutece.util.sort.AttributeComparator;
 import fr.paris.lutece.util.url.UrlItem;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -154,6 +156,7 @@ public class ApplicationJspBean extends ManageAppCenterJspBean
     private static final String ERROR_APPLICATION_MAIL_EMPTY_FILED = "appcenter.error.application.mail.empty_field";
     private static final String ERROR_APPLICATION_MAIL_NO_APPLICATION_SELECTED = "appcenter.error.application.mail.no_application_selected";
     private static final String ERROR_APPLICATION_CODE_ALREADY_USED = "appcenter.error.application.code.alreadyUsed";
+    private static final String ERROR_APPLICATION_DATA_INVALID = "appcenter.error.application.data.invalid";
 
     // Session variable to store working values
     private Application _application;
@@ -357,6 +360,7 @@ public class ApplicationJspBean extends ManageAppCenterJspBean
         if ( _application == null || ( _application.getId( ) != nId ) )
         {
             _application = ApplicationHome.findByPrimaryKey( nId );
+            _application.setApplicationData( ApplicationService.getApplicationDataJson( _application ) );
         }
 
         Map<String, Object> model = getModel( );
@@ -401,8 +405,17 @@ public class ApplicationJspBean extends ManageAppCenterJspBean
             return redirect( request, VIEW_MODIFY_APPLICATION, PARAMETER_ID_APPLICATION, _application.getId( ) );
         }
 
+        try
+        {
+            ApplicationService.updateApplicationData( _application.getId( ), _application.getApplicationData( ) );
+        }
+        catch( IOException e )
+        {
+            AppLogService.error( "Invalid data for the application " + _application.getId( ), e );
+            addError( ERROR_APPLICATION_DATA_INVALID, getLocale( ) );
+            return redirect( request, VIEW_MODIFY_APPLICATION, PARAMETER_ID_APPLICATION, _application.getId( ) );
+        }
         ApplicationHome.update( _application );
-        ApplicationHome.updateData( _application.getId( ), _application.getApplicationData( ) );
         addInfo( INFO_APPLICATION_UPDATED, getLocale( ) );
 
         return redirectView( request, VIEW_MANAGE_APPLICATIONS );
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.web;
+
+import fr.paris.lutece.plugins.appcenter.business.User;
+import fr.paris.lutece.plugins.appcenter.service.ApplicationLogoCacheService;
+import fr.paris.lutece.plugins.appcenter.service.ApplicationLogoCacheService.ApplicationLogo;
+import fr.paris.lutece.plugins.appcenter.service.AuthorizationService;
+import fr.paris.lutece.plugins.appcenter.service.UserService;
+import fr.paris.lutece.portal.business.user.AdminUser;
+import fr.paris.lutece.portal.service.admin.AdminUserService;
+import fr.paris.lutece.portal.service.security.UserNotSignedException;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+/**
+ * Servlet serving the logo of an application to the users allowed to view the application. The response carries an ETag so the browsers revalidate
+ * the logo instead of downloading it again
+ */
+public class ApplicationLogoServlet extends HttpServlet
+{
+    private static final long serialVersionUID = 2957186498237150343L;
+
+    // Parameters
+    private static final String PARAMETER_ID_APPLICATION = "id";
+
+    // Headers
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_CONTENT_TYPE_OPTIONS = "X-Content-Type-Options";
+    private static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
+
+    // Permissions
+    private static final String PERMISSION_VIEW_APPLICATION = "PERMISSION_VIEW_APPLICATION";
+
+    // Properties
+    private static final String PROPERTY_LOGO_MAX_AGE = "appcenter.logo.cache.maxAge";
+    private static final int DEFAULT_LOGO_MAX_AGE = 3600;
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        int nIdApplication = NumberUtils.toInt( request.getParameter( PARAMETER_ID_APPLICATION ), -1 );
+        if ( nIdApplication < 0 )
+        {
+            response.sendError( HttpServletResponse.SC_BAD_REQUEST );
+            return;
+        }
+
+        if ( !isAuthorized( request, nIdApplication ) )
+        {
+            response.sendError( HttpServletResponse.SC_FORBIDDEN );
+            return;
+        }
+
+        ApplicationLogo logo = ApplicationLogoCacheService.getInstance( ).getLogo( nIdApplication );
+        if ( logo == null )
+        {
+            response.sendError( HttpServletResponse.SC_NOT_FOUND );
+            return;
+        }
+
+        // The browsers must not guess another type than the checked one, and must not display what is not an image
+        response.setHeader( HEADER_CONTENT_TYPE_OPTIONS, "nosniff" );
+        response.setHeader( HEADER_ETAG, logo.getETag( ) );
+        response.setHeader( HEADER_CACHE_CONTROL, "private, max-age=" + AppPropertiesService.getPropertyInt( PROPERTY_LOGO_MAX_AGE, DEFAULT_LOGO_MAX_AGE ) );
+
+        if ( isNotModified( request, logo ) )
+        {
+            response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+            return;
+        }
+
+        response.setContentType( logo.getContentType( ) );
+        if ( !logo.isImage( ) )
+        {
+            response.setHeader( HEADER_CONTENT_DISPOSITION, "attachment; filename=\"logo\"" );
+        }
+        response.setContentLength( logo.getContent( ).length );
+        try( OutputStream out = response.getOutputStream( ) )
+        {
+            out.write( logo.getContent( ) );
+        }
+    }
+
+    /**
+     * Check that the user may view the application : a back office user managing the appcenter, or a front office user having the permission to view
+     * the application, as in the application XPage
+     * 
+     * @param request
+     *            the request
+     * @param nIdApplication
+     *            the id of the application
+     * @return true if the user may view the logo of the application
+     */
+    private static boolean isAuthorized( HttpServletRequest request, int nIdApplication )
+    {
+        AdminUser adminUser = AdminUserService.getAdminUser( request );
+        if ( adminUser != null && adminUser.checkRight( ManageAppCenterJspBean.RIGHT_MANAGEAPPCENTER ) )
+        {
+            return true;
+        }
+
+        try
+        {
+            User user = UserService.getCurrentUserInAppContext( request, nIdApplication );
+
+            return user != null && AuthorizationService.isAuthorized( user.getId( ), nIdApplication, PERMISSION_VIEW_APPLICATION, null );
+        }
+        catch( UserNotSignedException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Check the If-None-Match header of the request
+     * 
+     * @param request
+     *            the request
+     * @param logo
+     *            the logo
+     * @return true if the browser already has the current logo
+     */
+    private static boolean isNotModified( HttpServletRequest request, ApplicationLogo logo )
+    {
+        String strIfNoneMatch = request.getHeader( HEADER_IF_NONE_MATCH );
+        if ( strIfNoneMatch == null )
+        {
+            return false;
+        }
+
+        for ( String strETag : strIfNoneMatch.split( "," ) )
+        {
+            String strTrimmed = strETag.trim( );
+            if ( "*".equals( strTrimmed ) || logo.getETag( ).equals( StringUtils.removeStart( strTrimmed, "W/" ) ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
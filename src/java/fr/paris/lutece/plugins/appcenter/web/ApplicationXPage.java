@@ -37,7 +37,6 @@ import static fr.paris.lutece.plugins.appcenter.web.Constants.JSP_PAGE_PORTAL;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_APPLICATION;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_APPLICATION_LIST;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_DEMANDS;
-import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_DEMANDS_HISTORIES;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_DEMANDS_STATES;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_USER;
 import static fr.paris.lutece.plugins.appcenter.web.Constants.MARK_USERS_LIST;
@@ -73,9 +72,11 @@ import fr.paris.lutece.plugins.appcenter.business.UserApplicationRoleHome;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationHome;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManager;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManagerHome;
+import fr.paris.lutece.plugins.appcenter.service.AppCenterRequestContext;
 import fr.paris.lutece.plugins.appcenter.service.ApplicationService;
 import fr.paris.lutece.plugins.appcenter.service.AuthorizationService;
 import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.appcenter.service.DemandWorkflowService;
 import fr.paris.lutece.plugins.appcenter.service.EnvironmentService;
 import fr.paris.lutece.plugins.appcenter.service.RoleService;
 import fr.paris.lutece.plugins.appcenter.service.UserService;
@@ -88,12 +89,14 @@ import fr.paris.lutece.portal.service.message.SiteMessageService;
 import fr.paris.lutece.portal.service.security.LuteceUser;
 import fr.paris.lutece.portal.service.security.SecurityService;
 import fr.paris.lutece.portal.service.security.UserNotSignedException;
+import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.workflow.WorkflowService;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.Action;
 import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.portal.util.mvc.xpage.annotations.Controller;
 import fr.paris.lutece.portal.web.xpages.XPage;
 import fr.paris.lutece.util.ReferenceList;
+import fr.paris.lutece.util.string.StringUtil;
 import fr.paris.lutece.util.url.UrlItem;
 
 /**
@@ -131,6 +134,7 @@ public class ApplicationXPage extends AppCenterDemandXPage
     private static final String VIEW_CREATE_APPLICATION = "createApplication";
     private static final String VIEW_MODIFY_APPLICATION = "modifyApplication";
     private static final String VIEW_DEMANDS = "viewDemands";
+    private static final String VIEW_DEMAND_HISTORY = "viewDemandHistory";
 
     // Actions
     private static final String ACTION_CREATE_APPLICATION = "createApplication";
@@ -155,6 +159,7 @@ public class ApplicationXPage extends AppCenterDemandXPage
     // Parameters
     private static final String PARAMETER_ACTIVE_ENVIRONMENT = "active_environment";
     private static final String PARAMETER_ID_ORGANIZATION_MANAGER = "id_organization_manager";
+    private static final String PARAMETER_ID_DEMAND = "id_demand";
 
     // Session
     public static final String SESSION_ACTIVE_ENVIRONMENT = "active_environment";
@@ -400,21 +405,13 @@ public class ApplicationXPage extends AppCenterDemandXPage
             model.put( MARK_ACTIVE_ENVIRONMENT, _activeEnvironment );
         }
         Map<String, Object> mapStates = new HashMap<>( );
-        Map<String, Object> mapHistories = new HashMap<>( );
+        Map<Integer, State> mapStatesByIdDemand = DemandWorkflowService.getStates( listFullDemands );
         for ( Demand demand : listFullDemands )
         {
-            String strWorkflowResourceType = DemandTypeService.getWorkflowResourceType( demand.getIdDemandType( ) );
-            int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getIdDemandType( ) );
-            State state = WorkflowService.getInstance( ).getState( demand.getId( ), strWorkflowResourceType, nIdWorkflow, -1 );
-            mapStates.put( Integer.toString( demand.getId( ) ), state );
-
-            String strHistoryHtml = WorkflowService.getInstance( ).getDisplayDocumentHistory( demand.getId( ), strWorkflowResourceType, nIdWorkflow, request,
-                    request.getLocale( ) );
-            mapHistories.put( Integer.toString( demand.getId( ) ), strHistoryHtml );
+            mapStates.put( Integer.toString( demand.getId( ) ), mapStatesByIdDemand.get( demand.getId( ) ) );
         }
 
         model.put( MARK_DEMANDS_STATES, mapStates );
-        model.put( MARK_DEMANDS_HISTORIES, mapHistories );
         model.put( MARK_USER, UserService.getCurrentUserInAppContext( request, _application.getId( ) ) );
 
         return getXPage( TEMPLATE_MODIFY_APPLICATION, request.getLocale( ), model );
@@ -446,26 +443,81 @@ public class ApplicationXPage extends AppCenterDemandXPage
         model.put( MARK_DEMANDS, listFullDemands );
         model.put( MARK_USERS_LIST, UserApplicationRoleHome.getUserApplicationRolesListByIdApplication( _application.getId( ) ) );
         Map<String, Object> mapStates = new HashMap<>( );
-        Map<String, Object> mapHistories = new HashMap<>( );
+        Map<Integer, State> mapStatesByIdDemand = DemandWorkflowService.getStates( listFullDemands );
         for ( Demand demand : listFullDemands )
         {
-            String strWorkflowResourceType = DemandTypeService.getWorkflowResourceType( demand.getIdDemandType( ) );
-            int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getIdDemandType( ) );
-            State state = WorkflowService.getInstance( ).getState( demand.getId( ), strWorkflowResourceType, nIdWorkflow, -1 );
-            mapStates.put( Integer.toString( demand.getId( ) ), state );
-
-            String strHistoryHtml = WorkflowService.getInstance( ).getDisplayDocumentHistory( demand.getId( ), strWorkflowResourceType, nIdWorkflow, request,
-                    request.getLocale( ) );
-            mapHistories.put( Integer.toString( demand.getId( ) ), strHistoryHtml );
+            mapStates.put( Integer.toString( demand.getId( ) ), mapStatesByIdDemand.get( demand.getId( ) ) );
         }
 
         model.put( MARK_DEMANDS_STATES, mapStates );
-        model.put( MARK_DEMANDS_HISTORIES, mapHistories );
         model.put( MARK_USER, UserService.getCurrentUserInAppContext( request, _application.getId( ) ) );
 
         return getXPage( TEMPLATE_VIEW_DEMANDS, request.getLocale( ), model );
     }
 
+    /**
+     * Returns the workflow history of a demand, as a standalone fragment loaded on request by the demand lists. The fragment is injected in the list,
+     * so it is empty when the history can't be displayed, instead of a portal message page
+     * 
+     * @param request
+     *            The HTTP request
+     * @return The history of the demand
+     */
+    @View( VIEW_DEMAND_HISTORY )
+    public XPage getViewDemandHistory( HttpServletRequest request ) throws UserNotSignedException, SiteMessageException
+    {
+        XPage page = new XPage( );
+        page.setStandalone( true );
+        page.setContent( StringUtils.EMPTY );
+
+        // An unknown application would redirect to the application list
+        int nIdApplication = StringUtil.getIntValue( request.getParameter( Constants.PARAM_ID_APPLICATION ), -1 );
+        AppCenterRequestContext context = AppCenterRequestContext.getInstance( request );
+        if ( context.getApplication( nIdApplication ) == null )
+        {
+            Application application = ApplicationHome.findByPrimaryKey( nIdApplication );
+            if ( application == null )
+            {
+                AppLogService.debug( "Unknown application : " + request.getParameter( Constants.PARAM_ID_APPLICATION ) );
+                return page;
+            }
+            context.putApplication( application );
+        }
+
+        try
+        {
+            checkPermission( request, PERMISSION_VIEW_DEMANDS, null );
+        }
+        catch( AccessDeniedException e )
+        {
+            AppLogService.debug( "Demand history of the application " + nIdApplication + " not authorized" );
+            return page;
+        }
+
+        Demand demand = null;
+        try
+        {
+            demand = DemandHome.findByPrimaryKey( Integer.parseInt( request.getParameter( PARAMETER_ID_DEMAND ) ) );
+        }
+        catch( NumberFormatException e )
+        {
+            AppLogService.debug( "Invalid demand id : " + request.getParameter( PARAMETER_ID_DEMAND ) );
+        }
+
+        if ( demand == null || demand.getIdApplication( ) != _application.getId( ) )
+        {
+            AppLogService.debug( "Demand not found : " + request.getParameter( PARAMETER_ID_DEMAND ) );
+            return page;
+        }
+
+        String strWorkflowResourceType = DemandTypeService.getWorkflowResourceType( demand.getIdDemandType( ) );
+        int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getIdDemandType( ) );
+        page.setContent( WorkflowService.getInstance( ).getDisplayDocumentHistory( demand.getId( ), strWorkflowResourceType, nIdWorkflow, request,
+                request.getLocale( ) ) );
+
+        return page;
+    }
+
     /**
      * Process the change form of a application
      *
@@ -56,7 +56,6 @@ public class Constants
     public static final String MARK_DATAS = "datas";
     public static final String MARK_DEMANDS = "demands";
     public static final String MARK_DEMANDS_STATES = "demands_states";
-    public static final String MARK_DEMANDS_HISTORIES = "demands_histories";
     public static final String MARK_ENVIRONMENT = "environment";
     public static final String MARK_HISTORY_LIST = "listHistory";
     public static final String MARK_ROLES_LIST = "roles_list";
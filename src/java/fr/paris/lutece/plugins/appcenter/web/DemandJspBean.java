@@ -44,13 +44,16 @@ import fr.paris.lutece.plugins.appcenter.business.Application;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationDatas;
 import fr.paris.lutece.plugins.appcenter.business.ApplicationHome;
 import fr.paris.lutece.plugins.appcenter.business.Demand;
+import fr.paris.lutece.plugins.appcenter.business.DemandCursor;
 import fr.paris.lutece.plugins.appcenter.business.DemandFilter;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
+import fr.paris.lutece.plugins.appcenter.business.DemandSummary;
 import fr.paris.lutece.plugins.appcenter.business.DemandType;
 import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
 import fr.paris.lutece.plugins.appcenter.business.Environment;
 import fr.paris.lutece.plugins.appcenter.service.DemandService;
 import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
+import fr.paris.lutece.plugins.appcenter.service.DemandWorkflowService;
 import fr.paris.lutece.plugins.appcenter.util.AppCenterUtils;
 import fr.paris.lutece.plugins.workflowcore.business.state.State;
 import fr.paris.lutece.plugins.workflowcore.business.state.StateFilter;
@@ -72,13 +75,13 @@ import fr.paris.lutece.portal.web.xpages.XPageApplication;
 import fr.paris.lutece.portal.web.xpages.XPageApplicationEntry;
 import fr.paris.lutece.util.ReferenceItem;
 import fr.paris.lutece.util.ReferenceList;
-import fr.paris.lutece.util.sort.AttributeComparator;
 import fr.paris.lutece.util.url.UrlItem;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -137,15 +140,6 @@ public class DemandJspBean extends ManageAppCenterJspBean
     private static final String ACTION_REMOVE_DEMAND = "removeDemand";
     private static final String ACTION_CONFIRM_REMOVE_DEMAND = "confirmRemoveDemand";
 
-    // Constant
-    private static final String CONSTANT_ID = "id";
-    private static final String CONSTANT_LABEL_DEMAND_TYPE = "labelDemandType";
-    private static final String CONSTANT_CODE_APPLICATION = "codeApplication";
-    private static final String CONSTANT_NAME_APPLICATION = "nameApplication";
-    private static final String CONSTANT_WORKFLOW_STATE = "workflowState";
-    private static final String CONSTANT_ID_USER_FRONT = "idUserFront";
-    private static final String CONSTANT_CREATION_DATE = "creationDate";
-
     // Infos
     private static final String INFO_DEMAND_REMOVED = "appcenter.info.demand.removed";
 
@@ -154,6 +148,10 @@ public class DemandJspBean extends ManageAppCenterJspBean
 
     // Sessions variable
     private DemandFilter _filter;
+    private Map<Integer, DemandCursor> _mapPageCursors = new HashMap<>( );
+    private int _nPageCursorsItemsPerPage;
+    private boolean _bPageCursorsAscSort;
+    private String _strPageCursorsSortAttribute;
     private IStateService _stateService = SpringContextService.getBean( StateService.BEAN_SERVICE );
 
     private static final String STATE_IN_PROGRESS = "En cours";
@@ -179,8 +177,53 @@ public class DemandJspBean extends ManageAppCenterJspBean
             _filter.setState( STATE_IN_PROGRESS );
         }
 
-        List<Demand> listDemands = DemandHome.getDemandsListByFilter( _filter );
-        int nIdWorkflow;
+        // SORT : handled by the database, on the creation date order, which is also the id order, or on the sorted attribute
+        String strSortedAttributeName = request.getParameter( Parameters.SORTED_ATTRIBUTE_NAME );
+        String strAscSort = null;
+        boolean bIsAscSort = false;
+
+        if ( strSortedAttributeName != null )
+        {
+            strAscSort = request.getParameter( Parameters.SORTED_ASC );
+            bIsAscSort = Boolean.parseBoolean( strAscSort );
+        }
+
+        _filter.setSortAttribute( strSortedAttributeName );
+        _filter.setAscSort( bIsAscSort );
+
+        // Filter demand list by RBAC on demandType
+        DemandTypeService.addRBACFilter( _filter, getUser( ) );
+
+        // Load only the current page, starting after the last demand of the previous page
+        int nItemsPerPage = getItemsPerPage( request );
+        if ( nItemsPerPage != _nPageCursorsItemsPerPage || _filter.isAscSort( ) != _bPageCursorsAscSort
+                || !Objects.equals( _filter.getSortAttribute( ), _strPageCursorsSortAttribute ) )
+        {
+            _mapPageCursors.clear( );
+            _nPageCursorsItemsPerPage = nItemsPerPage;
+            _bPageCursorsAscSort = _filter.isAscSort( );
+            _strPageCursorsSortAttribute = _filter.getSortAttribute( );
+        }
+
+        int nItemsCount = DemandHome.getDemandsCountByFilter( _filter );
+        int nPageIndex = getPageIndex( request, nItemsCount );
+        DemandCursor cursor = null;
+
+        if ( nPageIndex > 1 )
+        {
+            cursor = _mapPageCursors.get( nPageIndex );
+            if ( cursor == null )
+            {
+                cursor = DemandHome.getDemandCursorByFilter( _filter, ( nPageIndex - 1 ) * nItemsPerPage - 1 );
+            }
+        }
+
+        List<DemandSummary> listDemands = DemandHome.getDemandSummariesListByFilter( _filter, cursor, nItemsPerPage );
+        // The value of another sort attribute is not loaded : the cursor of the next page is then loaded when it is displayed
+        if ( !listDemands.isEmpty( ) && _filter.getSortAttribute( ) == null )
+        {
+            _mapPageCursors.put( nPageIndex + 1, DemandCursor.after( listDemands.get( listDemands.size( ) - 1 ) ) );
+        }
 
         Map<String, Application> mapApplications = new HashMap<>( );
         Map<String, State> mapStates = new HashMap<>( );
@@ -198,22 +241,25 @@ public class DemandJspBean extends ManageAppCenterJspBean
             mapDemandTypes.put( demandType.getIdDemandType( ), demandType );
         }
 
-        for ( Demand demand : listDemands )
-        {
+        Map<Integer, State> mapStatesByIdDemand = DemandWorkflowService.getSummariesStates( listDemands );
+        Map<Integer, List<fr.paris.lutece.plugins.workflowcore.business.action.Action>> mapActionsByIdDemand = DemandWorkflowService
+                .getSummariesActions( listDemands, getUser( ) );
 
-            nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
-            State state = WorkflowService.getInstance( ).getState( demand.getId( ), Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, -1 );
-            mapStates.put( Integer.toString( demand.getId( ) ), state );
+        for ( DemandSummary demand : listDemands )
+        {
+            mapStates.put( Integer.toString( demand.getId( ) ), mapStatesByIdDemand.get( demand.getId( ) ) );
 
-            Collection<fr.paris.lutece.plugins.workflowcore.business.action.Action> listAllActions = WorkflowService.getInstance( ).getActions( demand.getId( ),
-                    Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, getUser( ) );
             Collection<fr.paris.lutece.plugins.workflowcore.business.action.Action> listActions = new ArrayList<>( );
+            List<fr.paris.lutece.plugins.workflowcore.business.action.Action> listAllActions = mapActionsByIdDemand.get( demand.getId( ) );
 
-            for (fr.paris.lutece.plugins.workflowcore.business.action.Action action : listAllActions )
+            if ( listAllActions != null )
             {
-                if ( !action.isAutomaticState( ) )
+                for ( fr.paris.lutece.plugins.workflowcore.business.action.Action action : listAllActions )
                 {
-                    listActions.add( action );
+                    if ( !action.isAutomaticState( ) )
+                    {
+                        listActions.add( action );
+                    }
                 }
             }
 
@@ -226,8 +272,8 @@ public class DemandJspBean extends ManageAppCenterJspBean
         // Construct demand type ref list
         ReferenceList demandTypeRefList = ReferenceList.convert( mapDemandTypes.values( ), "idDemandType", "label", false );
 
-        // Filter demand list and demand type reference list by RBAC on demandType
-        DemandTypeService.filterWithRBAC( listDemands, demandTypeRefList, getUser( ) );
+        // Filter demand type reference list by RBAC on demandType
+        DemandTypeService.filterWithRBAC( demandTypeRefList, getUser( ) );
         Collections.sort( demandTypeRefList, comparator );
 
         AppCenterUtils.addFirstItem( demandTypeRefList, request.getLocale( ) );
@@ -267,58 +313,6 @@ public class DemandJspBean extends ManageAppCenterJspBean
         Collections.sort( stateRefList, comparator );
         AppCenterUtils.addFirstItem( stateRefList, request.getLocale( ) );
 
-        // SORT
-        String strSortedAttributeName = request.getParameter( Parameters.SORTED_ATTRIBUTE_NAME );
-        String strAscSort = null;
-
-        if ( strSortedAttributeName != null )
-        {
-            strAscSort = request.getParameter( Parameters.SORTED_ASC );
-
-            boolean bIsAscSort = Boolean.parseBoolean( strAscSort );
-
-            if ( strSortedAttributeName.equals( CONSTANT_ID ) || strSortedAttributeName.equals( CONSTANT_ID_USER_FRONT )
-                    || strSortedAttributeName.equals( CONSTANT_CREATION_DATE ) )
-            {
-                Collections.sort( listDemands, new AttributeComparator( strSortedAttributeName, bIsAscSort ) );
-            }
-            else
-            {
-                Comparator<Demand> c = null;
-
-                if ( strSortedAttributeName.equals( CONSTANT_CODE_APPLICATION ) )
-                {
-                    c = Comparator.comparing( ( Demand x ) -> mapApplications.get( Integer.toString( x.getIdApplication( ) ) ).getCode( ) );
-                }
-                if ( strSortedAttributeName.equals( CONSTANT_NAME_APPLICATION ) )
-                {
-                    c = Comparator.comparing( ( Demand x ) -> mapApplications.get( Integer.toString( x.getIdApplication( ) ) ).getName( ) );
-                }
-                else
-                    if ( strSortedAttributeName.equals( CONSTANT_LABEL_DEMAND_TYPE ) )
-                    {
-                        c = Comparator.comparing( ( Demand x ) -> mapDemandTypes.get( x.getIdDemandType( ) ).getLabel( ) );
-                    }
-                    else
-                        if ( strSortedAttributeName.equals( CONSTANT_WORKFLOW_STATE ) )
-                        {
-                            c = Comparator.comparing( ( Demand x ) -> mapStates.get( Integer.toString( x.getId( ) ) ).getName( ) );
-                        }
-
-                if ( c != null )
-                {
-                    if ( bIsAscSort )
-                    {
-                        Collections.sort( listDemands, Collections.reverseOrder( c ) );
-                    }
-                    else
-                    {
-                        Collections.sort( listDemands, c );
-                    }
-                }
-            }
-        }
-
         UrlItem url = new UrlItem( JSP_MANAGE_DEMANDS );
 
         if ( strSortedAttributeName != null )
@@ -331,7 +325,7 @@ public class DemandJspBean extends ManageAppCenterJspBean
             url.addParameter( Parameters.SORTED_ASC, strAscSort );
         }
 
-        Map<String, Object> model = getPaginatedListModel( request, MARK_DEMAND_LIST, listDemands, url.getUrl( ) );
+        Map<String, Object> model = getPaginatedListModel( MARK_DEMAND_LIST, listDemands, nItemsCount, url.getUrl( ) );
 
         model.put( MARK_DEMAND_TYPE_REF_LIST, demandTypeRefList );
         model.put( MARK_ENVIRONMENT_REF_LIST, refListEnvi );
@@ -355,6 +349,7 @@ public class DemandJspBean extends ManageAppCenterJspBean
     public String doFilterDemand( HttpServletRequest request )
     {
         _filter = DemandService.computeDemandFilter( request );
+        _mapPageCursors.clear( );
         return redirectView( request, VIEW_MANAGE_DEMANDS );
     }
 
@@ -411,9 +406,7 @@ public class DemandJspBean extends ManageAppCenterJspBean
         Demand demand = null;
         Integer nIdDemand = request.getParameter( PARAMETER_ID_DEMAND ) != null ? Integer.parseInt( request.getParameter( PARAMETER_ID_DEMAND ) ) : null;
 
-        demand = DemandHome.findByPrimaryKey( nIdDemand );
-        Class demandClass = DemandTypeService.getClassByDemandTypeId( demand.getIdDemandType( ), DemandTypeHome.getDemandTypesList( ) );
-        demand = DemandHome.findByPrimaryKey( nIdDemand, demandClass );
+        demand = DemandHome.findTypedByPrimaryKey( nIdDemand );
         int nIdWorkflow = DemandTypeService.getIdWorkflow( demand.getDemandType( ) );
 
         String strHistoryHtml = WorkflowService.getInstance( ).getDisplayDocumentHistory( demand.getId( ), Demand.WORKFLOW_RESOURCE_TYPE, nIdWorkflow, request,
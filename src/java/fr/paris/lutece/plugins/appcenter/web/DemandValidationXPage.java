@@ -41,13 +41,13 @@ import javax.servlet.http.HttpServletRequest;
 import fr.paris.lutece.plugins.appcenter.business.Demand;
 import fr.paris.lutece.plugins.appcenter.business.DemandHome;
 import fr.paris.lutece.plugins.appcenter.business.DemandType;
-import fr.paris.lutece.plugins.appcenter.business.DemandTypeHome;
 import fr.paris.lutece.plugins.appcenter.business.DemandValidation;
 import fr.paris.lutece.plugins.appcenter.business.DemandValidationHome;
 import fr.paris.lutece.plugins.appcenter.business.User;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManager;
 import fr.paris.lutece.plugins.appcenter.business.organization.OrganizationManagerHome;
 import fr.paris.lutece.plugins.appcenter.service.task.RequestAuthenticatorService;
+import fr.paris.lutece.plugins.appcenter.service.DemandTypeRegistry;
 import fr.paris.lutece.plugins.appcenter.service.DemandTypeService;
 import fr.paris.lutece.plugins.appcenter.service.UserService;
 import fr.paris.lutece.plugins.workflowcore.business.action.Action;
@@ -147,10 +147,8 @@ public class DemandValidationXPage extends MVCApplication
 
         String strIdUser = user.getId( );
 
-        Demand demand = DemandHome.findByPrimaryKey( nIdDemand );
-        Class demandClass = DemandTypeService.getClassByDemandTypeId( demand.getIdDemandType( ), DemandTypeHome.getDemandTypesList( ) );
-        demand = DemandHome.findByPrimaryKey( nIdDemand, demandClass );
-        DemandType demandType = DemandTypeHome.findByIdDemandType( demand.getIdDemandType( ) );
+        Demand demand = DemandHome.findTypedByPrimaryKey( nIdDemand );
+        DemandType demandType = DemandTypeRegistry.getDemandType( demand.getIdDemandType( ) );
         Application application = ApplicationHome.findByPrimaryKey( demand.getIdApplication( ) );
 
         OrganizationManager organizationManager = application.getOrganizationManager( );
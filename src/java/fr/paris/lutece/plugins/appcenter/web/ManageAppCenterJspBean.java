@@ -35,6 +35,7 @@ package fr.paris.lutece.plugins.appcenter.web;
 
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.portal.util.mvc.admin.MVCAdminJspBean;
+import fr.paris.lutece.portal.web.util.LocalizedDelegatePaginator;
 import fr.paris.lutece.portal.web.util.LocalizedPaginator;
 import fr.paris.lutece.util.html.Paginator;
 import fr.paris.lutece.util.url.UrlItem;
@@ -99,4 +100,81 @@ public abstract class ManageAppCenterJspBean extends MVCAdminJspBean
 
         return model;
     }
+
+    /**
+     * Get the number of items per page from the request
+     * 
+     * @param request
+     *            The HTTP request
+     * @return The number of items per page
+     */
+    protected int getItemsPerPage( HttpServletRequest request )
+    {
+        _nDefaultItemsPerPage = AppPropertiesService.getPropertyInt( PROPERTY_DEFAULT_LIST_ITEM_PER_PAGE, 50 );
+        _nItemsPerPage = Paginator.getItemsPerPage( request, Paginator.PARAMETER_ITEMS_PER_PAGE, _nItemsPerPage, _nDefaultItemsPerPage );
+
+        return _nItemsPerPage;
+    }
+
+    /**
+     * Get the current page index from the request, bounded by the number of pages
+     * 
+     * @param request
+     *            The HTTP request
+     * @param nItemsCount
+     *            The total number of items
+     * @return The current page index, starting at 1
+     */
+    protected int getPageIndex( HttpServletRequest request, int nItemsCount )
+    {
+        _strCurrentPageIndex = Paginator.getPageIndex( request, Paginator.PARAMETER_PAGE_INDEX, _strCurrentPageIndex );
+
+        int nPageIndex = 1;
+        try
+        {
+            nPageIndex = Integer.parseInt( _strCurrentPageIndex );
+        }
+        catch( NumberFormatException e )
+        {
+            // Keep the first page
+        }
+
+        int nPageCount = Math.max( 1, ( nItemsCount + _nItemsPerPage - 1 ) / _nItemsPerPage );
+        nPageIndex = Math.max( 1, Math.min( nPageIndex, nPageCount ) );
+        _strCurrentPageIndex = Integer.toString( nPageIndex );
+
+        return nPageIndex;
+    }
+
+    /**
+     * Return a model that contains the items of the current page, loaded by the caller, and paginator infos. getItemsPerPage and getPageIndex must
+     * have been called before.
+     * 
+     * @param strBookmark
+     *            The bookmark
+     * @param listPageItems
+     *            The items of the current page
+     * @param nItemsCount
+     *            The total number of items
+     * @param strManageJsp
+     *            The JSP
+     * @return The model
+     */
+    protected Map<String, Object> getPaginatedListModel( String strBookmark, List listPageItems, int nItemsCount, String strManageJsp )
+    {
+        UrlItem url = new UrlItem( strManageJsp );
+        String strUrl = url.getUrl( );
+
+        // PAGINATOR
+        LocalizedDelegatePaginator paginator = new LocalizedDelegatePaginator( listPageItems, _nItemsPerPage, strUrl, PARAMETER_PAGE_INDEX,
+                _strCurrentPageIndex, nItemsCount, getLocale( ) );
+
+        Map<String, Object> model = getModel( );
+
+        model.put( MARK_NB_ITEMS_PER_PAGE, "" + _nItemsPerPage );
+        model.put( MARK_PAGINATOR, paginator );
+        model.put( strBookmark, paginator.getPageItems( ) );
+
+        return model;
+    }
 }
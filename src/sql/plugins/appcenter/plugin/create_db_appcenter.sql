@@ -38,7 +38,7 @@ PRIMARY KEY (id)
 
 DROP TABLE IF EXISTS appcenter_application;
 CREATE TABLE appcenter_application (
-id_application int(6) NOT NULL,
+id_application int(6) AUTO_INCREMENT,
 code varchar(50) default NULL,
 name varchar(50) default '' NOT NULL,
 description varchar(255) default '',
@@ -50,6 +50,17 @@ back_url varchar(255),
 PRIMARY KEY (id_application)
 );
 
+--
+-- Structure for table appcenter_application_data_subset
+--
+DROP TABLE IF EXISTS appcenter_application_data_subset;
+CREATE TABLE appcenter_application_data_subset (
+id_application int(6) NOT NULL,
+subset_name varchar(255) NOT NULL,
+subset_data long varchar,
+PRIMARY KEY (id_application, subset_name)
+);
+
 --
 -- Structure for table appcenter_
 --
@@ -80,6 +91,10 @@ environment varchar(255) NOT NULL,
 PRIMARY KEY (id_demand) 
 );
 
+CREATE INDEX idx_appcenter_demand_application ON appcenter_demand ( id_application, id_demand_type );
+CREATE INDEX idx_appcenter_demand_environment ON appcenter_demand ( environment, creation_date );
+CREATE INDEX idx_appcenter_demand_creation_date ON appcenter_demand ( creation_date );
+
 --
 -- Structure for table appcenter_workflow_resource_history_demand
 --
@@ -102,6 +117,31 @@ custom_demand_status varchar(1000) default '' NOT NULL,
 PRIMARY KEY ( id_task )
 );
 
+--
+-- Structure for table appcenter_notification_queue
+--
+
+DROP TABLE IF EXISTS appcenter_notification_queue;
+CREATE TABLE appcenter_notification_queue (
+id_notification int AUTO_INCREMENT,
+recipients long varchar,
+sender_name varchar(255) default '',
+sender_email varchar(255) default '',
+subject varchar(1000) default '',
+message long varchar,
+creation_date timestamp NULL,
+nb_attempts int default 0 NOT NULL,
+next_attempt_date timestamp NULL,
+digest_key varchar(255) NULL,
+claim_token varchar(50) NULL,
+claim_date timestamp NULL,
+PRIMARY KEY (id_notification)
+);
+
+CREATE INDEX idx_appcenter_notification_next_attempt ON appcenter_notification_queue ( next_attempt_date );
+CREATE INDEX idx_appcenter_notification_digest ON appcenter_notification_queue ( digest_key );
+CREATE INDEX idx_appcenter_notification_claim ON appcenter_notification_queue ( claim_token );
+
 --
 -- Structure for table appcenter_task_notify_config
 --
@@ -115,6 +155,8 @@ id_mailing_list int(6) NOT NULL DEFAULT -1,
 subject varchar(1000) NOT NULL DEFAULT '',
 message long varchar,
 sender_name varchar(255) NOT NULL DEFAULT '',
+digest SMALLINT NOT NULL DEFAULT 0,
+digest_window int NOT NULL DEFAULT 0,
 PRIMARY KEY ( id_task )
 );
 
@@ -1,3 +1,44 @@
 ALTER TABLE appcenter_application ADD logo_path varchar(255);
-ALTER TABLE appcenter_application ADD front_url varchar(255),
-ALTER TABLE appcenter_application ADD back_url varchar(255),
+ALTER TABLE appcenter_application ADD front_url varchar(255);
+ALTER TABLE appcenter_application ADD back_url varchar(255);
+
+ALTER TABLE appcenter_task_notify_config ADD digest SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE appcenter_task_notify_config ADD digest_window int NOT NULL DEFAULT 0;
+
+-- Primary keys are generated by the database instead of being computed with MAX( id ) + 1
+ALTER TABLE appcenter_application MODIFY id_application int(6) NOT NULL AUTO_INCREMENT;
+ALTER TABLE appcenter_demand_type MODIFY id int NOT NULL AUTO_INCREMENT;
+ALTER TABLE appcenter_category_demand_type MODIFY id int NOT NULL AUTO_INCREMENT;
+
+CREATE INDEX idx_appcenter_demand_application ON appcenter_demand ( id_application, id_demand_type );
+CREATE INDEX idx_appcenter_demand_environment ON appcenter_demand ( environment, creation_date );
+CREATE INDEX idx_appcenter_demand_creation_date ON appcenter_demand ( creation_date );
+
+CREATE TABLE appcenter_application_data_subset (
+id_application int(6) NOT NULL,
+subset_name varchar(255) NOT NULL,
+subset_data long varchar,
+PRIMARY KEY (id_application, subset_name)
+);
+
+-- The application_data documents are exploded into one row per subset by the plugin when it starts
+
+CREATE TABLE appcenter_notification_queue (
+id_notification int AUTO_INCREMENT,
+recipients long varchar,
+sender_name varchar(255) default '',
+sender_email varchar(255) default '',
+subject varchar(1000) default '',
+message long varchar,
+creation_date timestamp NULL,
+nb_attempts int default 0 NOT NULL,
+next_attempt_date timestamp NULL,
+digest_key varchar(255) NULL,
+claim_token varchar(50) NULL,
+claim_date timestamp NULL,
+PRIMARY KEY (id_notification)
+);
+
+CREATE INDEX idx_appcenter_notification_next_attempt ON appcenter_notification_queue ( next_attempt_date );
+CREATE INDEX idx_appcenter_notification_digest ON appcenter_notification_queue ( digest_key );
+CREATE INDEX idx_appcenter_notification_claim ON appcenter_notification_queue ( claim_token );
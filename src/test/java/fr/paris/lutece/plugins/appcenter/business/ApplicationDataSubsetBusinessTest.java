@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import fr.paris.lutece.plugins.appcenter.service.AppcenterPlugin;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.test.LuteceTestCase;
+import fr.paris.lutece.util.sql.TransactionManager;
+import java.util.Map;
+
+/**
+ * This is the business class test for the data subsets of the applications
+ */
+public class ApplicationDataSubsetBusinessTest extends LuteceTestCase
+{
+    private static final int ID_APPLICATION = 999999;
+    private static final String SUBSET1 = "subset1";
+    private static final String SUBSET2 = "subset2";
+    private static final String DATA1 = "{\"listData\":[]}";
+    private static final String DATA2 = "{\"listData\":[{\"idApplicationData\":1}]}";
+
+    /**
+     * test the data subsets
+     */
+    public void testBusiness( )
+    {
+        // Create test
+        ApplicationDataSubsetHome.store( ID_APPLICATION, SUBSET1, DATA1 );
+        ApplicationDataSubsetHome.store( ID_APPLICATION, SUBSET2, DATA1 );
+        assertEquals( DATA1, ApplicationDataSubsetHome.findByPrimaryKey( ID_APPLICATION, SUBSET1 ) );
+
+        // Update test : only the stored subset changes
+        ApplicationDataSubsetHome.store( ID_APPLICATION, SUBSET2, DATA2 );
+        Map<String, String> mapSubsets = ApplicationDataSubsetHome.findByIdApplication( ID_APPLICATION );
+        assertEquals( 2, mapSubsets.size( ) );
+        assertEquals( DATA1, mapSubsets.get( SUBSET1 ) );
+        assertEquals( DATA2, mapSubsets.get( SUBSET2 ) );
+
+        // Locked read test
+        Plugin plugin = AppcenterPlugin.getPlugin( );
+        TransactionManager.beginTransaction( plugin );
+        try
+        {
+            assertEquals( DATA2, ApplicationDataSubsetHome.findByPrimaryKeyForUpdate( ID_APPLICATION, SUBSET2 ) );
+            assertNull( ApplicationDataSubsetHome.findByPrimaryKeyForUpdate( ID_APPLICATION, "unknown" ) );
+        }
+        finally
+        {
+            TransactionManager.rollBack( plugin );
+        }
+
+        // Delete test
+        ApplicationDataSubsetHome.removeByIdApplication( ID_APPLICATION );
+        assertNull( ApplicationDataSubsetHome.findByPrimaryKey( ID_APPLICATION, SUBSET1 ) );
+        assertTrue( ApplicationDataSubsetHome.findByIdApplication( ID_APPLICATION ).isEmpty( ) );
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business;
+
+import fr.paris.lutece.portal.service.database.PluginConnectionService;
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.test.LuteceTestCase;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class tests that the indexes serving the Demand list queries exist on appcenter_demand
+ */
+public class DemandDAOTest extends LuteceTestCase
+{
+    private static final String TABLE_DEMAND = "appcenter_demand";
+    private static final String INDEX_APPLICATION = "idx_appcenter_demand_application";
+    private static final String INDEX_ENVIRONMENT = "idx_appcenter_demand_environment";
+    private static final String INDEX_CREATION_DATE = "idx_appcenter_demand_creation_date";
+
+    private static final String COLUMN_INDEX_NAME = "INDEX_NAME";
+    private static final String COLUMN_COLUMN_NAME = "COLUMN_NAME";
+    private static final String COLUMN_ORDINAL_POSITION = "ORDINAL_POSITION";
+
+    private Plugin _plugin = PluginService.getPlugin( "appcenter" );
+
+    /**
+     * test the index of the demands list by application and type
+     * 
+     * @throws SQLException
+     *             if the indexes can't be read
+     */
+    public void testApplicationAndTypeIndex( ) throws SQLException
+    {
+        assertEquals( Arrays.asList( "id_application", "id_demand_type" ), getIndexColumns( INDEX_APPLICATION ) );
+    }
+
+    /**
+     * test the index of the demands list by environment, sorted by creation date
+     * 
+     * @throws SQLException
+     *             if the indexes can't be read
+     */
+    public void testEnvironmentIndex( ) throws SQLException
+    {
+        assertEquals( Arrays.asList( "environment", "creation_date" ), getIndexColumns( INDEX_ENVIRONMENT ) );
+    }
+
+    /**
+     * test the index of the keyset paginated demands list
+     * 
+     * @throws SQLException
+     *             if the indexes can't be read
+     */
+    public void testCreationDateIndex( ) throws SQLException
+    {
+        assertEquals( Arrays.asList( "creation_date" ), getIndexColumns( INDEX_CREATION_DATE ) );
+    }
+
+    /**
+     * Read the columns of an index of appcenter_demand from the database metadata
+     * 
+     * @param strIndex
+     *            the name of the index
+     * @return the columns of the index, in their order, lower cased
+     * @throws SQLException
+     *             if the indexes can't be read
+     */
+    private List<String> getIndexColumns( String strIndex ) throws SQLException
+    {
+        Map<Integer, String> mapColumns = new TreeMap<>( );
+        PluginConnectionService connectionService = _plugin.getConnectionService( );
+        Connection connection = connectionService.getConnection( );
+
+        try
+        {
+            DatabaseMetaData metaData = connection.getMetaData( );
+            try( ResultSet resultSet = metaData.getIndexInfo( connection.getCatalog( ), null, TABLE_DEMAND, false, false ) )
+            {
+                while ( resultSet.next( ) )
+                {
+                    if ( strIndex.equalsIgnoreCase( resultSet.getString( COLUMN_INDEX_NAME ) ) )
+                    {
+                        mapColumns.put( resultSet.getInt( COLUMN_ORDINAL_POSITION ), resultSet.getString( COLUMN_COLUMN_NAME ).toLowerCase( ) );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            connectionService.freeConnection( connection );
+        }
+
+        return new ArrayList<>( mapColumns.values( ) );
+    }
+}
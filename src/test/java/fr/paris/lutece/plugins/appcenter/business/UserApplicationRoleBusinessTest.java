@@ -34,27 +34,35 @@
 package fr.paris.lutece.plugins.appcenter.business;
 
 import fr.paris.lutece.test.LuteceTestCase;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This is the business class test for the object UserApplicationRole
  */
 public class UserApplicationRoleBusinessTest extends LuteceTestCase
 {
-    private static final int IDROLE1 = 1;
     private static final int IDROLE2 = 2;
     private static final int IDAPPLICATION1 = 1;
     private static final int IDAPPLICATION2 = 2;
     private static final String IDUSER1 = "user1";
     private static final String IDUSER2 = "user2";
+    private static final String ROLE_CODE = "UserApplicationRoleTest";
+    private static final String ROLE_LABEL = "User application role test";
 
     /**
      * test UserApplicationRole
      */
     public void testBusiness( )
     {
+        Role role = new Role( );
+        role.setCode( ROLE_CODE );
+        role.setLabel( ROLE_LABEL );
+        RoleHome.create( role );
+
         // Initialize an object
         UserApplicationRole userApplicationRole = new UserApplicationRole( );
-        userApplicationRole.setIdRole( IDROLE1 );
+        userApplicationRole.setIdRole( role.getId( ) );
         userApplicationRole.setIdApplication( IDAPPLICATION1 );
         userApplicationRole.setIdUser( IDUSER1 );
 
@@ -68,13 +76,16 @@ public class UserApplicationRoleBusinessTest extends LuteceTestCase
 
         // List test
         UserApplicationRoleHome.getUserApplicationRolesList( );
+        Map<String, Set<String>> mapRoleCodes = UserApplicationRoleHome.getRoleCodesByIdApplication( userApplicationRole.getIdApplication( ) );
+        assertNotNull( mapRoleCodes.get( IDUSER1 ) );
+        assertTrue( mapRoleCodes.get( IDUSER1 ).contains( ROLE_CODE ) );
 
         // Delete test
         UserApplicationRoleHome.remove( userApplicationRole.getIdRole( ), userApplicationRole.getIdApplication( ), userApplicationRole.getIdUser( ) );
         userApplicationRoleStored = UserApplicationRoleHome.findByPrimaryKey( userApplicationRole.getIdRole( ), userApplicationRole.getIdApplication( ),
                 userApplicationRole.getIdUser( ) );
         assertNull( userApplicationRoleStored );
-
+        RoleHome.remove( role.getId( ) );
     }
 
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.business.notification;
+
+import fr.paris.lutece.test.LuteceTestCase;
+import java.sql.Timestamp;
+import java.util.Collections;
+
+/**
+ * This is the business class test for the outbound notification queue
+ */
+public class NotificationBusinessTest extends LuteceTestCase
+{
+    private static final String RECIPIENTS = "john.doe@paris.fr;jane.doe@paris.fr";
+    private static final String SENDER_NAME = "AppCenter";
+    private static final String SENDER_EMAIL = "noreply@paris.fr";
+    private static final String SUBJECT = "Subject";
+    private static final String MESSAGE = "<p>Message</p>";
+    private static final String DIGEST_KEY = "task-test";
+    private static final String CLAIM_TOKEN = "claim-test";
+    private static final String CLAIM_TOKEN_OTHER = "claim-test-other";
+
+    /**
+     * test Notification
+     */
+    public void testBusiness( )
+    {
+        Timestamp now = new Timestamp( System.currentTimeMillis( ) );
+
+        // Initialize an object
+        Notification notification = new Notification( );
+        notification.setRecipients( RECIPIENTS );
+        notification.setSenderName( SENDER_NAME );
+        notification.setSenderEmail( SENDER_EMAIL );
+        notification.setSubject( SUBJECT );
+        notification.setMessage( MESSAGE );
+        notification.setCreationDate( now );
+        notification.setNbAttempts( 0 );
+        notification.setNextAttemptDate( now );
+
+        // Create test
+        NotificationHome.create( notification );
+        Notification notificationStored = NotificationHome.findByPrimaryKey( notification.getId( ) );
+        assertEquals( notificationStored.getRecipients( ), notification.getRecipients( ) );
+        assertEquals( notificationStored.getSubject( ), notification.getSubject( ) );
+        assertEquals( notificationStored.getMessage( ), notification.getMessage( ) );
+        assertTrue( containsNotification( now, notification.getId( ) ) );
+
+        // Claim test : a claimed notification is not to be sent and can't be claimed by another run, until its claim is released
+        NotificationHome.claim( Collections.singletonList( notification.getId( ) ), CLAIM_TOKEN, now, now );
+        NotificationHome.claim( Collections.singletonList( notification.getId( ) ), CLAIM_TOKEN_OTHER, now, now );
+        assertTrue( NotificationHome.getClaimedNotifications( CLAIM_TOKEN ).stream( ).anyMatch( n -> n.getId( ) == notification.getId( ) ) );
+        assertTrue( NotificationHome.getClaimedNotifications( CLAIM_TOKEN_OTHER ).isEmpty( ) );
+        assertFalse( containsNotification( now, notification.getId( ) ) );
+
+        // Retry test : a notification is not sent before its next attempt date
+        notification.setNbAttempts( 1 );
+        notification.setNextAttemptDate( new Timestamp( now.getTime( ) + 60000L ) );
+        NotificationHome.updateAttempt( notification );
+        notificationStored = NotificationHome.findByPrimaryKey( notification.getId( ) );
+        assertEquals( 1, notificationStored.getNbAttempts( ) );
+        assertFalse( containsNotification( now, notification.getId( ) ) );
+
+        // Digest test : the pending notifications of a digest give the date of the mail
+        assertNull( NotificationHome.findDigestNextAttemptDate( DIGEST_KEY, RECIPIENTS ) );
+        Notification notificationDigest = new Notification( );
+        notificationDigest.setRecipients( RECIPIENTS );
+        notificationDigest.setSubject( SUBJECT );
+        notificationDigest.setMessage( MESSAGE );
+        notificationDigest.setCreationDate( now );
+        notificationDigest.setNextAttemptDate( now );
+        notificationDigest.setDigestKey( DIGEST_KEY );
+        NotificationHome.create( notificationDigest );
+        assertEquals( DIGEST_KEY, NotificationHome.findByPrimaryKey( notificationDigest.getId( ) ).getDigestKey( ) );
+        assertNotNull( NotificationHome.findDigestNextAttemptDate( DIGEST_KEY, RECIPIENTS ) );
+        NotificationHome.claimDigest( DIGEST_KEY, RECIPIENTS, CLAIM_TOKEN, now, now );
+        assertTrue( NotificationHome.getClaimedNotifications( CLAIM_TOKEN ).stream( ).anyMatch( n -> n.getId( ) == notificationDigest.getId( ) ) );
+
+        // Delete test
+        NotificationHome.remove( notification.getId( ) );
+        NotificationHome.remove( notificationDigest.getId( ) );
+        assertNull( NotificationHome.findByPrimaryKey( notification.getId( ) ) );
+        assertNull( NotificationHome.findDigestNextAttemptDate( DIGEST_KEY, RECIPIENTS ) );
+    }
+
+    /**
+     * Check if a notification is in the notifications to send at a given date
+     * 
+     * @param date
+     *            The date
+     * @param nIdNotification
+     *            The id of the notification
+     * @return true if the notification is to be sent
+     */
+    private static boolean containsNotification( Timestamp date, int nIdNotification )
+    {
+        return NotificationHome.getIdNotificationsToSend( date, date, Integer.MAX_VALUE ).contains( nIdNotification );
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2002-2019, Mairie de Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.appcenter.service.notification;
+
+import fr.paris.lutece.plugins.appcenter.business.notification.Notification;
+import fr.paris.lutece.plugins.appcenter.business.notification.NotificationHome;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import fr.paris.lutece.test.LuteceTestCase;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.stream.Stream;
+
+/**
+ * This is the test of the processing of the outbound notification queue
+ */
+public class NotificationQueueServiceTest extends LuteceTestCase
+{
+    private static final String RECIPIENT = "queue.test@paris.fr";
+    private static final String RECIPIENT_DIGEST = "queue.digest.test@paris.fr";
+    private static final String SENDER_NAME = "AppCenter";
+    private static final String SENDER_EMAIL = "noreply@paris.fr";
+    private static final String SUBJECT = "Subject";
+    private static final String MESSAGE = "<p>Message</p>";
+    private static final String MESSAGE_DIGEST_1 = "<p>Digest message 1</p>";
+    private static final String MESSAGE_DIGEST_2 = "<p>Digest message 2</p>";
+    private static final String DIGEST_KEY = "task-queue-test";
+    private static final String FILE_PREFIX = "notification_";
+    private static final String FILE_EXTENSION = ".eml";
+    private static final String PROPERTY_MAX_ATTEMPTS = "appcenter.notification.queue.maxAttempts";
+    private static final String PROPERTY_RETRY_DELAY = "appcenter.notification.queue.retryDelay";
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_RETRY_DELAY = 60;
+
+    /**
+     * test the sending of the notifications and of a digest
+     * 
+     * @throws IOException
+     *             if the mail files can't be read
+     */
+    public void testProcessQueue( ) throws IOException
+    {
+        Path directory = Files.createTempDirectory( "appcenter-queue-test" );
+        FileNotificationSender sender = new FileNotificationSender( );
+        sender.setDirectory( directory.toString( ) );
+
+        try
+        {
+            Notification notification = createNotification( RECIPIENT, MESSAGE, null );
+            Notification notificationDigest1 = createNotification( RECIPIENT_DIGEST, MESSAGE_DIGEST_1, DIGEST_KEY );
+            Notification notificationDigest2 = createNotification( RECIPIENT_DIGEST, MESSAGE_DIGEST_2, DIGEST_KEY );
+
+            NotificationQueueService.processQueue( sender );
+
+            // The sent notifications are removed from the queue
+            assertNull( NotificationHome.findByPrimaryKey( notification.getId( ) ) );
+            assertNull( NotificationHome.findByPrimaryKey( notificationDigest1.getId( ) ) );
+            assertNull( NotificationHome.findByPrimaryKey( notificationDigest2.getId( ) ) );
+
+            String strMail = readMail( directory, notification.getId( ) );
+            assertTrue( strMail.contains( "To: " + RECIPIENT ) );
+            assertTrue( strMail.contains( "Subject: " + SUBJECT ) );
+            assertTrue( strMail.contains( MESSAGE ) );
+
+            // The notifications of the digest are sent in one mail, written under the id of the first one
+            String strDigest = readMail( directory, notificationDigest1.getId( ) );
+            assertTrue( strDigest.contains( "To: " + RECIPIENT_DIGEST ) );
+            assertFalse( strDigest.contains( "Subject: " + SUBJECT ) );
+            assertTrue( strDigest.contains( MESSAGE_DIGEST_1 ) );
+            assertTrue( strDigest.contains( MESSAGE_DIGEST_2 ) );
+            assertFalse( getMailFile( directory, notificationDigest2.getId( ) ).exists( ) );
+        }
+        finally
+        {
+            try( Stream<Path> files = Files.list( directory ) )
+            {
+                files.forEach( file -> file.toFile( ).delete( ) );
+            }
+            Files.delete( directory );
+        }
+    }
+
+    /**
+     * test the retries of the notifications which can't be sent
+     */
+    public void testRetry( )
+    {
+        INotificationSender sender = n -> {
+            throw new IOException( "SMTP server unavailable" );
+        };
+        long lRetryDelay = AppPropertiesService.getPropertyInt( PROPERTY_RETRY_DELAY, DEFAULT_RETRY_DELAY ) * 1000L;
+        int nMaxAttempts = AppPropertiesService.getPropertyInt( PROPERTY_MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS );
+        Notification notification = createNotification( RECIPIENT, MESSAGE, null );
+
+        try
+        {
+            // First failure : the notification is kept and delayed. The dates may be stored to the second
+            long lBefore = System.currentTimeMillis( ) - 1000L;
+            NotificationQueueService.processQueue( sender );
+            Notification notificationStored = NotificationHome.findByPrimaryKey( notification.getId( ) );
+            assertNotNull( notificationStored );
+            assertEquals( 1, notificationStored.getNbAttempts( ) );
+            assertTrue( notificationStored.getNextAttemptDate( ).getTime( ) >= lBefore + lRetryDelay );
+            assertFalse( NotificationHome.getIdNotificationsToSend( new Timestamp( lBefore ), new Timestamp( lBefore ), Integer.MAX_VALUE ).contains(
+                    notification.getId( ) ) );
+
+            // Second failure : the delay is doubled
+            makeDue( notificationStored );
+            lBefore = System.currentTimeMillis( ) - 1000L;
+            NotificationQueueService.processQueue( sender );
+            notificationStored = NotificationHome.findByPrimaryKey( notification.getId( ) );
+            assertEquals( 2, notificationStored.getNbAttempts( ) );
+            assertTrue( notificationStored.getNextAttemptDate( ).getTime( ) >= lBefore + 2 * lRetryDelay );
+
+            // Last failure : the notification is discarded
+            notificationStored.setNbAttempts( nMaxAttempts - 1 );
+            makeDue( notificationStored );
+            NotificationQueueService.processQueue( sender );
+            assertNull( NotificationHome.findByPrimaryKey( notification.getId( ) ) );
+        }
+        finally
+        {
+            NotificationHome.remove( notification.getId( ) );
+        }
+    }
+
+    /**
+     * test the notifications rejected by the sender
+     */
+    public void testRejected( )
+    {
+        INotificationSender sender = n -> {
+            throw new NotificationRejectedException( "Invalid address", null );
+        };
+        Notification notification = createNotification( RECIPIENT, MESSAGE, null );
+
+        try
+        {
+            // A rejected notification is discarded at once
+            NotificationQueueService.processQueue( sender );
+            assertNull( NotificationHome.findByPrimaryKey( notification.getId( ) ) );
+        }
+        finally
+        {
+            NotificationHome.remove( notification.getId( ) );
+        }
+    }
+
+    /**
+     * Create a notification to send now
+     * 
+     * @param strRecipients
+     *            The recipients
+     * @param strMessage
+     *            The message
+     * @param strDigestKey
+     *            The key of the digest, or null
+     * @return The notification
+     */
+    private static Notification createNotification( String strRecipients, String strMessage, String strDigestKey )
+    {
+        Timestamp now = new Timestamp( System.currentTimeMillis( ) );
+        Notification notification = new Notification( );
+        notification.setRecipients( strRecipients );
+        notification.setSenderName( SENDER_NAME );
+        notification.setSenderEmail( SENDER_EMAIL );
+        notification.setSubject( SUBJECT );
+        notification.setMessage( strMessage );
+        notification.setCreationDate( now );
+        notification.setNbAttempts( 0 );
+        notification.setNextAttemptDate( now );
+        notification.setDigestKey( strDigestKey );
+
+        return NotificationHome.create( notification );
+    }
+
+    /**
+     * Make a notification due now
+     * 
+     * @param notification
+     *            The notification
+     */
+    private static void makeDue( Notification notification )
+    {
+        notification.setNextAttemptDate( new Timestamp( System.currentTimeMillis( ) ) );
+        NotificationHome.updateAttempt( notification );
+    }
+
+    /**
+     * Returns the mail file of a notification
+     * 
+     * @param directory
+     *            The directory of the mail files
+     * @param nIdNotification
+     *            The id of the notification
+     * @return The file
+     */
+    private static File getMailFile( Path directory, int nIdNotification )
+    {
+        return directory.resolve( FILE_PREFIX + nIdNotification + FILE_EXTENSION ).toFile( );
+    }
+
+    /**
+     * Read the mail file of a notification
+     * 
+     * @param directory
+     *            The directory of the mail files
+     * @param nIdNotification
+     *            The id of the notification
+     * @return The content of the file
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private static String readMail( Path directory, int nIdNotification ) throws IOException
+    {
+        return new String( Files.readAllBytes( getMailFile( directory, nIdNotification ).toPath( ) ), StandardCharsets.UTF_8 );
+    }
+}